@@ -0,0 +1,103 @@
+package com.eshope_console.dao;
+
+import com.eshope_console.model.Product;
+import com.eshope_console.model.ProductSummary;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResultSet to Product mapping over an in-memory ResultSet, so only the mapping is measured.
+ * The stub answers by column label or index the way the driver does, through a dynamic proxy.
+ * mapProducts is the list/page path, mapSummaries the bulk-scan path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+    private static final List<String> COLUMNS = Arrays.asList(
+            "id", "name", "description", "price", "stock_quantity", "category_id", "created_at", "category_name");
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Object[][] rows;
+
+    @Setup
+    public void setUp() {
+        rows = new Object[size][];
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            rows[i] = new Object[]{
+                    String.format("PRD%07d", i), "Laptop " + i, "Sample product description for Laptop " + i,
+                    10.0 + (i % 1000) * 0.1, 10 + (i % 100), "CAT00" + (1 + i % 3), createdAt, "Electronics"};
+        }
+    }
+
+    @Benchmark
+    public void mapProducts(Blackhole blackhole) throws SQLException {
+        ResultSet rs = resultSet(rows);
+        ProductRowMapper mapper = ProductRowMapper.of(rs);
+        while (rs.next()) {
+            Product product = mapper.mapProduct(rs);
+            blackhole.consume(product);
+        }
+    }
+
+    @Benchmark
+    public void mapSummaries(Blackhole blackhole) throws SQLException {
+        ResultSet rs = resultSet(rows);
+        ProductRowMapper mapper = ProductRowMapper.of(rs);
+        while (rs.next()) {
+            ProductSummary summary = mapper.mapSummary(rs);
+            blackhole.consume(summary);
+        }
+    }
+
+    private static ResultSet resultSet(Object[][] rows) {
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "findColumn":
+                            if (!COLUMNS.contains((String) args[0])) throw new SQLException("No column " + args[0]);
+                            return COLUMNS.indexOf((String) args[0]) + 1;
+                        case "wasNull":
+                        case "close":
+                            return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                        default:
+                            break;
+                    }
+                    // getObject(int, Class) is answered like getObject(int); the stub already holds the target types
+                    if (!method.getName().startsWith("get") || args == null
+                            || (args.length != 1 && !method.getName().equals("getObject"))) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int column = args[0] instanceof String ? COLUMNS.indexOf((String) args[0]) : (Integer) args[0] - 1;
+                    if (column < 0) throw new SQLException("No column " + args[0]);
+                    Object value = rows[cursor[0]][column];
+                    switch (method.getName()) {
+                        case "getDouble":
+                            return ((Number) value).doubleValue();
+                        case "getInt":
+                            return ((Number) value).intValue();
+                        case "getLong":
+                            return ((Number) value).longValue();
+                        default:
+                            return value;
+                    }
+                });
+    }
+}
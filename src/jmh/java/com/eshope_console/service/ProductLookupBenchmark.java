@@ -0,0 +1,83 @@
+package com.eshope_console.service;
+
+import com.eshope_console.dao.ProductDAO;
+import com.eshope_console.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory lookup paths: the product cache, the catalog code hash, the search index and the price index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductLookupBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private String[] codes;
+    private ProductCache cache;
+    private ProductCatalog catalog;
+    private PriceIndex priceIndex;
+    private ProductSearchIndex searchIndex;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = new ProductService(new ProductDAO()).generateSampleProducts(size);
+        codes = new String[size];
+        cache = new ProductCache(size, 0);
+        catalog = new ProductCatalog(size);
+        searchIndex = new ProductSearchIndex();
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            codes[i] = product.getProductCode();
+            cache.putIfUnchanged(product.getProductCode(), product, cache.currentGeneration());
+            catalog.put(product);
+        }
+        searchIndex.addAll(products);
+        searchIndex.markReady();
+        priceIndex = catalog.buildPriceIndex();
+    }
+
+    // Strides through the codes so successive lookups do not hit the same cache lines
+    private String nextCode() {
+        next = (next + 7919) % size;
+        return codes[next];
+    }
+
+    @Benchmark
+    public Product cacheGet() {
+        return cache.get(nextCode());
+    }
+
+    @Benchmark
+    public int catalogIndexOf() {
+        return catalog.indexOf(nextCode());
+    }
+
+    @Benchmark
+    public Product catalogFindToProduct() {
+        return catalog.find(nextCode()).toProduct();
+    }
+
+    @Benchmark
+    public List<String> searchIndexFirstPage() {
+        return searchIndex.search("laptop", 0, 20);
+    }
+
+    @Benchmark
+    public long[] priceIndexFirstPage() {
+        return priceIndex.range(5_000, 6_000, -1, 0, 20);
+    }
+
+    @Benchmark
+    public int priceIndexCount() {
+        return priceIndex.count(5_000, 6_000);
+    }
+}
@@ -0,0 +1,34 @@
+package com.eshope_console.service;
+
+import com.eshope_console.dao.ProductDAO;
+import com.eshope_console.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building sample products, the input side of the 10M-row ingest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SampleProductsBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductService(new ProductDAO());
+    }
+
+    @Benchmark
+    public List<Product> generateSampleProducts() {
+        return productService.generateSampleProducts(size);
+    }
+}
@@ -0,0 +1,40 @@
+package com.eshope_console.view;
+
+import com.eshope_console.dao.ProductDAO;
+import com.eshope_console.model.Product;
+import com.eshope_console.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting product table rows, without the console write
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleViewBenchmark {
+    @Param({"100", "10000"})
+    public int size;
+
+    private final ConsoleView consoleView = new ConsoleView();
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = new ProductService(new ProductDAO()).generateSampleProducts(size);
+        for (Product product : products) product.setCategoryName("Electronics");
+    }
+
+    @Benchmark
+    public void formatProductRows(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(consoleView.formatProductRow(product));
+        }
+    }
+}
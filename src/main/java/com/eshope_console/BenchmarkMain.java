@@ -0,0 +1,99 @@
+package com.eshope_console;
+
+import com.eshope_console.config.DatabaseConfig;
+import com.eshope_console.dao.IdAllocator;
+import com.eshope_console.dao.OrderDAO;
+import com.eshope_console.dao.ProductDAO;
+import com.eshope_console.model.BenchmarkWorkload;
+import com.eshope_console.model.ExecutionMode;
+import com.eshope_console.service.BenchmarkConfig;
+import com.eshope_console.service.BenchmarkResult;
+import com.eshope_console.service.BenchmarkService;
+import com.eshope_console.service.OrderService;
+import com.eshope_console.service.ProductService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command-line entry point for the latency benchmarks, e.g.
+ * {@code gradle benchmark -PbenchArgs="--workloads findByCode,keysetPage --concurrency 1,8 --duration 30"}
+ */
+public class BenchmarkMain {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Options:",
+            "  --workloads a,b,...   workloads to run, 'reads' (default) or 'all'; one of "
+                    + Arrays.stream(BenchmarkWorkload.values()).map(BenchmarkWorkload::getCliName).reduce((a, b) -> a + ", " + b).orElse(""),
+            "  --concurrency 1,4,16  thread counts to run each workload with",
+            "  --warmup SECONDS      warm-up before measuring (default 3)",
+            "  --duration SECONDS    measured time per workload and level (default 10)",
+            "  --iterations N        measure N operations instead of a duration",
+            "  --page-size N         rows per page for search and pagination workloads (default 50)",
+            "  --executor MODE       benchmark threads: platform (default), virtual (Java 21+) or forkjoin",
+            "  --user USER_ID        user the checkout workload places orders for",
+            "  --out FILE            results file (default data/benchmarks/results-<timestamp>.tsv)",
+            "  --baseline FILE       earlier results file to compare against");
+
+    public static void main(String[] args) {
+        try {
+            BenchmarkConfig config = parse(args);
+            DatabaseConfig.testConnection();
+            IdAllocator.initializeAll();
+            ProductService productService = new ProductService(new ProductDAO());
+            BenchmarkService benchmarkService = new BenchmarkService(productService,
+                    new OrderService(new OrderDAO(), productService));
+
+            List<BenchmarkResult> results = benchmarkService.run(config, System.out::println);
+            List<BenchmarkResult> baseline = config.getBaselineFile() != null
+                    ? BenchmarkService.readResults(config.getBaselineFile()) : null;
+            System.out.println();
+            BenchmarkService.report(results, baseline).forEach(System.out::println);
+            System.out.println("\nResults written to " + config.getResultsFile().toAbsolutePath());
+            System.exit(0);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("Benchmark failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static BenchmarkConfig parse(String[] args) {
+        BenchmarkConfig config = new BenchmarkConfig();
+        config.setWorkloads(BenchmarkWorkload.parseList("reads"));
+        config.setResultsFile(BenchmarkService.defaultResultsFile());
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--help") || option.equals("-h")) {
+                throw new IllegalArgumentException("Latency benchmarks for the eshop services");
+            }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + option);
+            String value = args[++i];
+            switch (option) {
+                case "--workloads" -> config.setWorkloads(BenchmarkWorkload.parseList(value));
+                case "--concurrency" -> config.setConcurrencyLevels(
+                        Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray());
+                case "--warmup" -> config.setWarmupSeconds(Integer.parseInt(value));
+                case "--duration" -> config.setDurationSeconds(Integer.parseInt(value));
+                case "--iterations" -> config.setIterations(Long.parseLong(value));
+                case "--page-size" -> config.setPageSize(Integer.parseInt(value));
+                case "--executor" -> config.setExecutionMode(ExecutionMode.fromCliName(value));
+                case "--user" -> config.setCheckoutUserId(value);
+                case "--out" -> config.setResultsFile(Paths.get(value));
+                case "--baseline" -> {
+                    Path baseline = Paths.get(value);
+                    if (!Files.exists(baseline)) throw new IllegalArgumentException("Baseline file not found: " + value);
+                    config.setBaselineFile(baseline);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        return config;
+    }
+}
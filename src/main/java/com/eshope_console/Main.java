@@ -1,5 +1,7 @@
 package com.eshope_console;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 import com.eshope_console.config.DatabaseConfig;
@@ -14,6 +16,7 @@ public class Main {
         try {
             System.out.println("Testing database connection...");
             DatabaseConfig.testConnection();
+            IdAllocator.initializeAll();
 
             UserDAO userDAO = new UserDAO();
             ProductDAO productDAO = new ProductDAO();
@@ -24,13 +27,21 @@ public class Main {
             CartService cartService = new CartService(productService);
             OrderService orderService = new OrderService(orderDAO, productService);
             ReadProductService readProductService = new ReadProductService(productService);
+            BenchmarkService benchmarkService = new BenchmarkService(productService, orderService);
+
+            if (Boolean.getBoolean("eshop.searchIndex")) {
+                startSearchIndexBuild(productService);
+            }
+            if (Files.exists(productService.getCatalogSnapshotPath())) {
+                openCatalogSnapshot(productService);
+            }
 
             Scanner scanner = new Scanner(System.in);
             MenuView menuView = new MenuView(scanner);
             ConsoleView consoleView = new ConsoleView();
 
             ReadProductController readProductController = new ReadProductController(
-                    scanner, consoleView, readProductService, productService
+                    scanner, consoleView, readProductService, productService, benchmarkService
             );
 
             ShopController controller = new ShopController(
@@ -46,4 +57,43 @@ public class Main {
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Map the catalog snapshot so reads are served right away, then catch up with the database in the background
+     */
+    private static void openCatalogSnapshot(ProductService productService) {
+        Path path = productService.getCatalogSnapshotPath();
+        try {
+            long start = System.currentTimeMillis();
+            ProductCatalog catalog = productService.openCatalogSnapshot(path);
+            System.out.println("🧠 Product catalog mapped from " + path + ": " + String.format("%,d", catalog.size())
+                    + " products in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Catalog snapshot " + path + " could not be read, ignoring it: " + e.getMessage());
+            return;
+        }
+        Thread catchUp = new Thread(() -> {
+            try {
+                long applied = productService.catchUpCatalog(10_000);
+                System.out.println("\n🧠 Product catalog caught up: " + String.format("%,d", applied) + " changed products applied");
+            } catch (Exception e) {
+                System.err.println("Product catalog catch-up failed: " + e.getMessage());
+            }
+        }, "catalog-catch-up");
+        catchUp.setDaemon(true);
+        catchUp.start();
+    }
+
+    private static void startSearchIndexBuild(ProductService productService) {
+        Thread builder = new Thread(() -> {
+            try {
+                int indexed = productService.buildSearchIndex(10_000);
+                System.out.println("\n🔎 Search index ready: " + String.format("%,d", indexed) + " products indexed");
+            } catch (Exception e) {
+                System.err.println("Search index build failed, searches will use the database: " + e.getMessage());
+            }
+        }, "search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+}
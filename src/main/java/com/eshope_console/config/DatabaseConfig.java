@@ -1,5 +1,7 @@
 package com.eshope_console.config;
 
+import javax.sql.DataSource;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -9,16 +11,84 @@ public class DatabaseConfig {
     private static final String DB_USER = "eshop";
     private static final String DB_PASSWORD = "qwer";
 
+    // Pool settings, overridable with -Deshop.pool.<name>=<value>
+    private static final int POOL_MIN_SIZE = Integer.getInteger("eshop.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("eshop.pool.maxSize", 10);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("eshop.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("eshop.pool.borrowTimeoutMs", 30_000L);
+    private static final long POOL_VALIDATION_INTERVAL_MS = Long.getLong("eshop.pool.validationIntervalMs", 30_000L);
+    private static final int POOL_VALIDATION_TIMEOUT_S = Integer.getInteger("eshop.pool.validationTimeoutSec", 2);
+    private static final int POOL_PREPARE_THRESHOLD = Integer.getInteger("eshop.pool.prepareThreshold", 5);
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("eshop.pool.statementCacheSize", 64);
+
+    // Query metrics, overridable with -Deshop.metrics.<name>=<value>
+    private static final boolean METRICS_ENABLED = Boolean.parseBoolean(System.getProperty("eshop.metrics.enabled", "true"));
+    private static final boolean METRICS_JMX = Boolean.parseBoolean(System.getProperty("eshop.metrics.jmx", "true"));
+
+
+    // Slow query log, overridable with -Deshop.slowQuery.<name>=<value>; needs the metrics layer, off with a negative threshold
+    private static final long SLOW_QUERY_THRESHOLD_MS = Long.getLong("eshop.slowQuery.thresholdMs", 500L);
+    private static final boolean SLOW_QUERY_LOG_PARAMETERS = Boolean.parseBoolean(System.getProperty("eshop.slowQuery.logParameters", "false"));
+    private static final boolean SLOW_QUERY_EXPLAIN = Boolean.parseBoolean(System.getProperty("eshop.slowQuery.explain", "false"));
+    private static final double SLOW_QUERY_SAMPLE_RATE = Double.parseDouble(System.getProperty("eshop.slowQuery.sampleRate", "1.0"));
+    private static final int SLOW_QUERY_MAX_PER_SECOND = Integer.getInteger("eshop.slowQuery.maxPerSecond", 20);
+    private static final int SLOW_QUERY_MAX_EXPLAINS_PER_MINUTE = Integer.getInteger("eshop.slowQuery.maxExplainsPerMinute", 6);
+    private static final String SLOW_QUERY_FILE = System.getProperty("eshop.slowQuery.file", "data/logs/slow-queries.log");
+
+    private static final SlowQueryLog SLOW_QUERY_LOG = METRICS_ENABLED && SLOW_QUERY_THRESHOLD_MS >= 0
+            ? new SlowQueryLog(SLOW_QUERY_THRESHOLD_MS, SLOW_QUERY_LOG_PARAMETERS, SLOW_QUERY_SAMPLE_RATE,
+            SLOW_QUERY_MAX_PER_SECOND, SLOW_QUERY_EXPLAIN ? SLOW_QUERY_MAX_EXPLAINS_PER_MINUTE : 0,
+            Paths.get(SLOW_QUERY_FILE), () -> DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD))
+            : null;
+    private static final QueryMetrics QUERY_METRICS = new QueryMetrics(METRICS_ENABLED && METRICS_JMX, SLOW_QUERY_LOG);
+    private static final ConnectionPool POOL;
+
     static {
         try {
             Class.forName("org.postgresql.Driver");
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("PostgreSQL JDBC Driver not found", e);
         }
+        POOL = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                POOL_IDLE_TIMEOUT_MS, POOL_BORROW_TIMEOUT_MS, POOL_VALIDATION_INTERVAL_MS, POOL_VALIDATION_TIMEOUT_S,
+                POOL_PREPARE_THRESHOLD, POOL_STATEMENT_CACHE_SIZE, METRICS_ENABLED ? QUERY_METRICS : null);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (SLOW_QUERY_LOG != null) SLOW_QUERY_LOG.close();
+            POOL.close();
+        }, "connection-pool-shutdown"));
     }
 
+    /**
+     * Borrow a connection from the pool. Closing it returns it to the pool.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return POOL.getConnection();
+    }
+
+    public static DataSource getDataSource() {
+        return POOL;
+    }
+
+    public static PoolStats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * Per-statement metrics; stays empty when eshop.metrics.enabled is false
+     */
+    public static QueryMetrics getQueryMetrics() {
+        return QUERY_METRICS;
+    }
+
+    public static boolean isQueryMetricsEnabled() {
+        return METRICS_ENABLED;
+    }
+
+    /**
+     * The slow query log, or null when it is turned off
+     */
+    public static SlowQueryLog getSlowQueryLog() {
+        return SLOW_QUERY_LOG;
     }
 
     public static void testConnection() {
@@ -0,0 +1,417 @@
+package com.eshope_console.config;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * MeteredStatement for a PreparedStatement: times the parameterless executes under the prepared
+ * SQL and, when the slow query log asks for them, keeps each value bound by index.
+ */
+class MeteredPreparedStatement extends MeteredStatement implements PreparedStatement {
+    private final PreparedStatement target;
+
+    MeteredPreparedStatement(PreparedStatement target, QueryMetrics queryMetrics, StatementMetrics metrics,
+                             String sql, SlowQueryLog slowQueryLog) {
+        super(target, queryMetrics, metrics, sql, slowQueryLog);
+        this.target = target;
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        target.addBatch();
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        if (capturesParameters()) clearBinds();
+        target.clearParameters();
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        long start = begin(null);
+        boolean result;
+        try {
+            result = target.execute();
+        } catch (Throwable e) {
+            failed(null, start);
+            throw e;
+        }
+        finished(null, start);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        long start = begin(null);
+        long result;
+        try {
+            result = target.executeLargeUpdate();
+        } catch (Throwable e) {
+            failed(null, start);
+            throw e;
+        }
+        finished(null, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        long start = begin(null);
+        ResultSet result;
+        try {
+            result = target.executeQuery();
+        } catch (Throwable e) {
+            failed(null, start);
+            throw e;
+        }
+        finished(null, start);
+        return countRows(result);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        long start = begin(null);
+        int result;
+        try {
+            result = target.executeUpdate();
+        } catch (Throwable e) {
+            failed(null, start);
+            throw e;
+        }
+        finished(null, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return target.getMetaData();
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return target.getParameterMetaData();
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setAsciiStream(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBigDecimal(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBinaryStream(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, inputStream);
+        target.setBlob(parameterIndex, inputStream, length);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, inputStream);
+        target.setBlob(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBlob(parameterIndex, x);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBoolean(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setByte(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setBytes(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setCharacterStream(parameterIndex, reader);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setClob(parameterIndex, reader);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setClob(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setDate(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setDate(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setDouble(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setFloat(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setInt(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setLong(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, value);
+        target.setNCharacterStream(parameterIndex, value, length);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, value);
+        target.setNCharacterStream(parameterIndex, value);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setNClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, reader);
+        target.setNClob(parameterIndex, reader);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, value);
+        target.setNClob(parameterIndex, value);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, value);
+        target.setNString(parameterIndex, value);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, new SlowQueryLog.SqlNull(sqlType));
+        target.setNull(parameterIndex, sqlType, typeName);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, new SlowQueryLog.SqlNull(sqlType));
+        target.setNull(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setRef(parameterIndex, x);
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setRowId(parameterIndex, x);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, xmlObject);
+        target.setSQLXML(parameterIndex, xmlObject);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setShort(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setString(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setTime(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setTime(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setTimestamp(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setTimestamp(parameterIndex, x);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setURL(parameterIndex, x);
+    }
+
+    @Deprecated
+    @Override
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        if (capturesParameters()) bind(parameterIndex, x);
+        target.setUnicodeStream(parameterIndex, x, length);
+    }
+}
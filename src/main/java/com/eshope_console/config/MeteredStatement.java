@@ -0,0 +1,530 @@
+package com.eshope_console.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Statement that times every execute call and counts failures and rows, delegating
+ * everything else to the driver's statement.
+ * Rows are update counts for writes and next() calls on the result sets it returns, which are
+ * wrapped in a CountingResultSet. Written out rather than a dynamic proxy, like CountingResultSet,
+ * so binds and executes stay plain virtual calls, without reflection, argument arrays or boxing.
+ * A plain Statement is named by the SQL of its first execute, with literals stripped.
+ * Executions over the slow query threshold are handed to the slow query log, together with
+ * the parameters bound through setXxx, which are only kept when that log asks for them.
+ */
+class MeteredStatement implements Statement {
+    private final Statement target;
+    private final QueryMetrics queryMetrics;
+    private StatementMetrics metrics;
+    private final String sql;
+    private final SlowQueryLog slowQueryLog;
+    private Object[] parameters;
+
+    /**
+     * @param metrics      the prepared statement's metrics, or null for a plain Statement
+     * @param sql          the prepared SQL, or null for a plain Statement whose SQL comes with each execute
+     * @param slowQueryLog where slow executions go, or null
+     */
+    MeteredStatement(Statement target, QueryMetrics queryMetrics, StatementMetrics metrics, String sql,
+                     SlowQueryLog slowQueryLog) {
+        this.target = target;
+        this.queryMetrics = queryMetrics;
+        this.metrics = metrics;
+        this.sql = sql;
+        this.slowQueryLog = slowQueryLog;
+        this.parameters = slowQueryLog != null && slowQueryLog.capturesParameters() ? new Object[8] : null;
+    }
+
+    @Override
+    public String toString() {
+        return "MeteredStatement[" + target + "]";
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        target.addBatch(sql);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        target.cancel();
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        target.clearBatch();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        target.clearWarnings();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        target.close();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        target.closeOnCompletion();
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return target.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return target.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return target.enquoteNCharLiteral(val);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        long start = begin(sql);
+        boolean result;
+        try {
+            result = target.execute(sql, columnIndexes);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        long start = begin(sql);
+        boolean result;
+        try {
+            result = target.execute(sql, columnNames);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = begin(sql);
+        boolean result;
+        try {
+            result = target.execute(sql, autoGeneratedKeys);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        long start = begin(sql);
+        boolean result;
+        try {
+            result = target.execute(sql);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        return result;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long start = begin(null);
+        int[] result;
+        try {
+            result = target.executeBatch();
+        } catch (Throwable e) {
+            failed(null, start);
+            throw e;
+        }
+        finished(null, start);
+        for (int count : result) addRows(count);
+        return result;
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long start = begin(null);
+        long[] result;
+        try {
+            result = target.executeLargeBatch();
+        } catch (Throwable e) {
+            failed(null, start);
+            throw e;
+        }
+        finished(null, start);
+        for (long count : result) addRows(count);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = begin(sql);
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql, columnIndexes);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = begin(sql);
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql, columnNames);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = begin(sql);
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql, autoGeneratedKeys);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        long start = begin(sql);
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        long start = begin(sql);
+        ResultSet result;
+        try {
+            result = target.executeQuery(sql);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        return countRows(result);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = begin(sql);
+        int result;
+        try {
+            result = target.executeUpdate(sql, columnIndexes);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = begin(sql);
+        int result;
+        try {
+            result = target.executeUpdate(sql, columnNames);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = begin(sql);
+        int result;
+        try {
+            result = target.executeUpdate(sql, autoGeneratedKeys);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        long start = begin(sql);
+        int result;
+        try {
+            result = target.executeUpdate(sql);
+        } catch (Throwable e) {
+            failed(sql, start);
+            throw e;
+        }
+        finished(sql, start);
+        addRows(result);
+        return result;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target.getConnection();
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return target.getFetchDirection();
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return target.getFetchSize();
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return target.getGeneratedKeys();
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return target.getLargeMaxRows();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return target.getLargeUpdateCount();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return target.getMaxFieldSize();
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return target.getMaxRows();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return target.getMoreResults();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return target.getMoreResults(current);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return target.getQueryTimeout();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return countRows(target.getResultSet());
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return target.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return target.getResultSetHoldability();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return target.getResultSetType();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return target.getUpdateCount();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return target.getWarnings();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return target.isCloseOnCompletion();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return target.isClosed();
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return target.isPoolable();
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return target.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return target.isWrapperFor(iface);
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        target.setCursorName(name);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        target.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        target.setFetchDirection(direction);
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        target.setFetchSize(rows);
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        target.setLargeMaxRows(max);
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        target.setMaxFieldSize(max);
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        target.setMaxRows(max);
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        target.setPoolable(poolable);
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        target.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return target.unwrap(iface);
+    }
+
+    /**
+     * Start of an execute: resolves a plain statement's metrics from its first SQL
+     *
+     * @param executed the SQL passed to the execute call, or null for the prepared SQL or a batch
+     */
+    final long begin(String executed) {
+        if (metrics == null) metrics = queryMetrics.forPlainSql(executed);
+        return System.nanoTime();
+    }
+
+    final void finished(String executed, long start) {
+        long elapsed = System.nanoTime() - start;
+        metrics.recordExecution(elapsed);
+        if (slowQueryLog != null && elapsed >= slowQueryLog.getThresholdNanos()) logSlow(executed, elapsed);
+    }
+
+    final void failed(String executed, long start) {
+        long elapsed = System.nanoTime() - start;
+        metrics.recordError(elapsed);
+        if (slowQueryLog != null && elapsed >= slowQueryLog.getThresholdNanos()) logSlow(executed, elapsed);
+    }
+
+    final void addRows(long count) {
+        metrics.addRows(count);
+    }
+
+    final ResultSet countRows(ResultSet resultSet) {
+        if (resultSet == null) return null;
+        return new CountingResultSet(resultSet, this, metrics);
+    }
+
+    final boolean capturesParameters() {
+        return parameters != null;
+    }
+
+    final void bind(int index, Object value) {
+        if (index < 1 || index > 65535) return;
+        if (index >= parameters.length) parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+        parameters[index] = value;
+    }
+
+    final void clearBinds() {
+        Arrays.fill(parameters, null);
+    }
+
+    private void logSlow(String executed, long elapsed) {
+        if (executed == null) executed = sql;
+        if (executed == null) return;
+        Object[] bound = sql != null && parameters != null ? Arrays.copyOf(parameters, lastBoundIndex() + 1) : null;
+        slowQueryLog.record(metrics.getName(), executed, bound, elapsed);
+    }
+
+    private int lastBoundIndex() {
+        int last = parameters.length - 1;
+        while (last > 0 && parameters[last] == null) last--;
+        return last;
+    }
+}
@@ -0,0 +1,98 @@
+package com.eshope_console.config;
+
+/**
+ * Point-in-time snapshot of connection pool usage.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int minSize;
+    private final int maxSize;
+    private final int waitingThreads;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolStats(int active, int idle, int total, int minSize, int maxSize, int waitingThreads,
+                     long borrowCount, long timeoutCount, long totalWaitNanos, long maxWaitNanos,
+                     long statementCacheHits, long statementCacheMisses) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.waitingThreads = waitingThreads;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public double getStatementCacheHitRate() {
+        long requests = statementCacheHits + statementCacheMisses;
+        return requests == 0 ? 0.0 : (double) statementCacheHits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d total=%d (min=%d, max=%d) waiting=%d borrows=%,d timeouts=%d avgWait=%.3fms maxWait=%.3fms"
+                        + " stmtCache hits=%,d misses=%,d hitRate=%.1f%%",
+                active, idle, total, minSize, maxSize, waitingThreads, borrowCount, timeoutCount,
+                getAverageWaitMillis(), getMaxWaitMillis(),
+                statementCacheHits, statementCacheMisses, getStatementCacheHitRate() * 100);
+    }
+}
@@ -0,0 +1,225 @@
+package com.eshope_console.config;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of per-statement metrics, fed by the connection pool.
+ * A statement is named after the application method that first prepared its SQL text
+ * (e.g. "ProductDAO.findByCode"), found by walking the stack once per distinct text; later
+ * executions of the same text are a hash lookup. Each name is also published as an MXBean
+ * under com.eshope_console:type=QueryMetrics when JMX registration is enabled.
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+    private static final String JMX_DOMAIN = "com.eshope_console";
+    private static final String APP_PACKAGE = "com.eshope_console.";
+    private static final String CONFIG_PACKAGE = "com.eshope_console.config.";
+    // Bounds for statements built from dynamic SQL; past them texts are re-resolved and names pooled as "other"
+    private static final int MAX_SQL_TEXTS = 4096;
+    private static final int MAX_NAMES = 512;
+    private static final String OVERFLOW_NAME = "other";
+    private static final String SNAPSHOT_HEADER =
+            "name\texecutions\terrors\trows\ttotal_ms\tmean_us\tp50_us\tp99_us\tp999_us\tmax_us\tsql";
+
+    private final boolean registerMBeans;
+    private final SlowQueryLog slowQueryLog;
+    private final StackWalker stackWalker = StackWalker.getInstance();
+    private final ConcurrentHashMap<String, StatementMetrics> bySql = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StatementMetrics> byName = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowQueryLog where executions over its threshold are logged, or null
+     */
+    public QueryMetrics(boolean registerMBeans, SlowQueryLog slowQueryLog) {
+        this.registerMBeans = registerMBeans;
+        this.slowQueryLog = slowQueryLog;
+        register(this, "type=QueryMetrics");
+    }
+
+    /**
+     * Wrap a statement so its executions are recorded.
+     * sql is the text it was prepared with, or null for a plain Statement, whose metrics are
+     * resolved from the SQL of its first execute. type is the interface the caller asked for.
+     */
+    Statement wrap(Statement statement, Class<?> type, String sql) {
+        StatementMetrics metrics = sql != null ? forSql(sql) : null;
+        if (type == CallableStatement.class) {
+            return new MeteredCallableStatement((CallableStatement) statement, this, metrics, sql, slowQueryLog);
+        }
+        if (type == PreparedStatement.class) {
+            return new MeteredPreparedStatement((PreparedStatement) statement, this, metrics, sql, slowQueryLog);
+        }
+        return new MeteredStatement(statement, this, metrics, sql, slowQueryLog);
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    StatementMetrics forSql(String sql) {
+        StatementMetrics metrics = bySql.get(sql);
+        if (metrics != null) return metrics;
+        metrics = forName(callerName(), sql);
+        if (bySql.size() < MAX_SQL_TEXTS) bySql.putIfAbsent(sql, metrics);
+        return metrics;
+    }
+
+    /**
+     * Metrics for SQL run through a plain Statement. Such SQL tends to embed values
+     * (e.g. SET TRANSACTION SNAPSHOT '...'), so it is keyed with its literals replaced by ?
+     * and each call site's statement is still resolved only once.
+     */
+    StatementMetrics forPlainSql(String sql) {
+        return forSql(sql == null ? "" : withoutLiterals(sql));
+    }
+
+    // Replace quoted strings and numbers outside identifiers with ?
+    static String withoutLiterals(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                int end = i + 1;
+                while (end < sql.length()) {
+                    if (sql.charAt(end) == '\'') {
+                        if (end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                sb.append('?');
+                i = end + 1;
+            } else if (Character.isDigit(c) && (i == 0 || !Character.isLetterOrDigit(sql.charAt(i - 1)) && sql.charAt(i - 1) != '_')) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                sb.append('?');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private StatementMetrics forName(String name, String sql) {
+        StatementMetrics metrics = byName.get(name);
+        if (metrics != null) return metrics;
+        if (byName.size() >= MAX_NAMES) name = OVERFLOW_NAME;
+        StatementMetrics created = new StatementMetrics(name, sql);
+        StatementMetrics existing = byName.putIfAbsent(name, created);
+        if (existing != null) return existing;
+        register(created, "type=QueryMetrics,statement=" + ObjectName.quote(name));
+        return created;
+    }
+
+    // The innermost application frame outside this package, as SimpleClass.method
+    private String callerName() {
+        return stackWalker.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE) && !frame.getClassName().startsWith(CONFIG_PACKAGE))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName())
+                .orElse(OVERFLOW_NAME));
+    }
+
+    private void register(Object mbean, String properties) {
+        if (!registerMBeans) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (!server.isRegistered(objectName)) server.registerMBean(mbean, objectName);
+        } catch (JMException e) {
+            System.err.println("Could not register query metrics MBean " + properties + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Current metrics of every statement seen, most total time first
+     */
+    public List<QueryStats> snapshot() {
+        List<QueryStats> stats = new ArrayList<>();
+        for (StatementMetrics metrics : byName.values()) stats.add(metrics.snapshot());
+        stats.sort(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed());
+        return stats;
+    }
+
+    /**
+     * Zero every counter; statement names stay registered
+     */
+    public void reset() {
+        for (StatementMetrics metrics : byName.values()) metrics.reset();
+    }
+
+    @Override
+    public String[] getStatementNames() {
+        return byName.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public long getTotalExecutions() {
+        long total = 0;
+        for (StatementMetrics metrics : byName.values()) total += metrics.getExecutions();
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (StatementMetrics metrics : byName.values()) total += metrics.getErrors();
+        return total;
+    }
+
+    @Override
+    public void resetAll() {
+        reset();
+    }
+
+    /**
+     * Timestamped snapshot file in the metrics directory (eshop.metricsDir, default data/metrics)
+     */
+    public static Path defaultSnapshotFile() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return Paths.get(System.getProperty("eshop.metricsDir", "data/metrics")).resolve("query-metrics-" + timestamp + ".tsv");
+    }
+
+    /**
+     * Write a snapshot as tab-separated values, one line per statement
+     */
+    public static void writeSnapshot(List<QueryStats> stats, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# eshop query metrics, written " + LocalDateTime.now());
+            writer.newLine();
+            writer.write(SNAPSHOT_HEADER);
+            writer.newLine();
+            for (QueryStats stat : stats) {
+                writer.write(String.format(Locale.ROOT, "%s\t%d\t%d\t%d\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\t%s",
+                        stat.getName(), stat.getExecutions(), stat.getErrors(), stat.getRows(), stat.getTotalMillis(),
+                        stat.getMeanMicros(), stat.getP50Micros(), stat.getP99Micros(), stat.getP999Micros(),
+                        stat.getMaxMicros(), stat.getSql() == null ? "" : stat.getSql().replaceAll("\\s+", " ")));
+                writer.newLine();
+            }
+        }
+    }
+}
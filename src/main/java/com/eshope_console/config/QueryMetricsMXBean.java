@@ -0,0 +1,14 @@
+package com.eshope_console.config;
+
+/**
+ * JMX view of the statement registry as a whole.
+ */
+public interface QueryMetricsMXBean {
+    String[] getStatementNames();
+
+    long getTotalExecutions();
+
+    long getTotalErrors();
+
+    void resetAll();
+}
@@ -0,0 +1,79 @@
+package com.eshope_console.config;
+
+import com.eshope_console.util.LatencyHistogram;
+
+/**
+ * Point-in-time snapshot of one named statement's metrics.
+ */
+public class QueryStats {
+    private final String name;
+    private final String sql;
+    private final long executions;
+    private final long errors;
+    private final long rows;
+    private final LatencyHistogram latency;
+
+    public QueryStats(String name, String sql, long executions, long errors, long rows, LatencyHistogram latency) {
+        this.name = name;
+        this.sql = sql;
+        this.executions = executions;
+        this.errors = errors;
+        this.rows = rows;
+        this.latency = latency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /** Rows read through returned result sets plus update counts */
+    public long getRows() {
+        return rows;
+    }
+
+    public double getTotalMillis() {
+        return latency.getMean() * latency.getTotalCount() / 1_000_000.0;
+    }
+
+    public double getMeanMicros() {
+        return latency.getMean() / 1000.0;
+    }
+
+    public double getP50Micros() {
+        return latency.getValueAtPercentile(50) / 1000.0;
+    }
+
+    public double getP99Micros() {
+        return latency.getValueAtPercentile(99) / 1000.0;
+    }
+
+    public double getP999Micros() {
+        return latency.getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    public double getMaxMicros() {
+        return latency.getMax() / 1000.0;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d executions, %d errors, %d rows, mean %.1fµs, p99 %.1fµs",
+                name, executions, errors, rows, getMeanMicros(), getP99Micros());
+    }
+}
@@ -0,0 +1,296 @@
+package com.eshope_console.config;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log of statements whose execute call took longer than a threshold, with their SQL, bound
+ * parameters and duration, and optionally the plan of slow SELECTs.
+ * The executing thread only samples, rate-limits and enqueues; formatting, file writes and
+ * EXPLAIN run on one background thread with its own database connection, outside the pool.
+ * When the queue is full entries are dropped and counted rather than blocking the query.
+ */
+public class SlowQueryLog {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_PARAMETER_LENGTH = 200;
+    private static final int EXPLAIN_TIMEOUT_MS = 5000;
+    // A statement's plan is captured at most once per interval
+    private static final long EXPLAIN_REPEAT_NANOS = TimeUnit.MINUTES.toNanos(10);
+    // Statements touching these columns never have their parameters written out
+    private static final String[] SENSITIVE_COLUMNS = {"password", "credential", "secret", "token"};
+
+    private final long thresholdNanos;
+    private final boolean logParameters;
+    private final boolean explain;
+    private final double sampleRate;
+    private final Path file;
+    private final Callable<Connection> explainConnectionFactory;
+    private final RateLimit entryLimit;
+    private final RateLimit explainLimit;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder explained = new LongAdder();
+    private final Thread writer;
+    private Connection explainConnection;
+    // BUFFERS without ANALYZE is only accepted from PostgreSQL 13 on
+    private boolean explainBuffers;
+    private volatile boolean closed = false;
+
+    /**
+     * @param sampleRate               fraction (0-1) of slow statements considered for logging
+     * @param maxEntriesPerSecond      entries logged per second; the rest are counted as suppressed
+     * @param maxExplainsPerMinute     EXPLAIN runs per minute, 0 to never explain
+     * @param explainConnectionFactory opens the connection EXPLAIN runs on; called lazily and again after a failure
+     */
+    public SlowQueryLog(long thresholdMillis, boolean logParameters, double sampleRate, int maxEntriesPerSecond,
+                        int maxExplainsPerMinute, Path file, Callable<Connection> explainConnectionFactory) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explain = maxExplainsPerMinute > 0 && explainConnectionFactory != null;
+        this.logParameters = logParameters;
+        this.sampleRate = Math.min(1, Math.max(0, sampleRate));
+        this.file = file;
+        this.explainConnectionFactory = explainConnectionFactory;
+        this.entryLimit = new RateLimit(TimeUnit.SECONDS.toNanos(1), Math.max(1, maxEntriesPerSecond));
+        this.explainLimit = new RateLimit(TimeUnit.MINUTES.toNanos(1), Math.max(1, maxExplainsPerMinute));
+        this.writer = new Thread(this::drain, "slow-query-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Whether statements should keep their bound parameters, which EXPLAIN also needs
+     */
+    boolean capturesParameters() {
+        return logParameters || explain;
+    }
+
+    /**
+     * Called on the executing thread for every statement at or over the threshold
+     */
+    void record(String name, String sql, Object[] parameters, long nanos) {
+        if (closed) return;
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            suppressed.increment();
+            return;
+        }
+        if (!entryLimit.tryAcquire()) {
+            suppressed.increment();
+            return;
+        }
+        if (!queue.offer(new Entry(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS), name, sql, parameters, nanos))) dropped.increment();
+    }
+
+    private void drain() {
+        while (!closed) {
+            Entry entry;
+            try {
+                entry = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            String plan = shouldExplain(entry) ? explain(entry) : null;
+            try {
+                write(entry, plan);
+                logged.increment();
+            } catch (IOException e) {
+                dropped.increment();
+                System.err.println("Could not write slow query log " + file + ": " + e.getMessage());
+            }
+        }
+        closeExplainConnection();
+    }
+
+    private boolean shouldExplain(Entry entry) {
+        if (!explain || !isSelect(entry.sql)) return false;
+        long now = System.nanoTime();
+        Long last = lastExplained.get(entry.name);
+        if (last != null && now - last < EXPLAIN_REPEAT_NANOS) return false;
+        if (!explainLimit.tryAcquire()) return false;
+        lastExplained.put(entry.name, now);
+        return true;
+    }
+
+    // ANALYZE stays off, so the statement is planned but never run a second time
+    private String explain(Entry entry) {
+        try {
+            if (explainConnection == null || explainConnection.isClosed()) {
+                explainConnection = explainConnectionFactory.call();
+                explainConnection.setReadOnly(true);
+                explainBuffers = explainConnection.getMetaData().getDatabaseMajorVersion() >= 13;
+                try (Statement stmt = explainConnection.createStatement()) {
+                    stmt.execute("SET statement_timeout = " + EXPLAIN_TIMEOUT_MS);
+                }
+            }
+            try (PreparedStatement stmt = explainConnection.prepareStatement(
+                    (explainBuffers ? "EXPLAIN (ANALYZE off, BUFFERS, FORMAT JSON) " : "EXPLAIN (ANALYZE off, FORMAT JSON) ") + entry.sql)) {
+                Object[] parameters = entry.parameters == null ? new Object[0] : entry.parameters;
+                for (int i = 1; i < parameters.length; i++) {
+                    Object value = parameters[i];
+                    if (value instanceof SqlNull) stmt.setNull(i, ((SqlNull) value).sqlType);
+                    else stmt.setObject(i, value);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) plan.append(rs.getString(1));
+                    explained.increment();
+                    return plan.toString();
+                }
+            }
+        } catch (Exception e) {
+            closeExplainConnection();
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private void write(Entry entry, String plan) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(String.format(Locale.ROOT, "%s slow query %s took %.1f ms",
+                    entry.at, entry.name, entry.nanos / 1_000_000.0));
+            out.newLine();
+            out.write("  sql: " + entry.sql.replaceAll("\\s+", " ").trim());
+            out.newLine();
+            if (logParameters && entry.parameters != null) {
+                out.write("  parameters: " + (isSensitive(entry.sql) ? "<redacted>" : formatParameters(entry.parameters)));
+                out.newLine();
+            }
+            if (plan != null) {
+                out.write("  plan: " + plan.replace("\n", "\n        "));
+                out.newLine();
+            }
+        }
+    }
+
+    private static String formatParameters(Object[] parameters) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i < parameters.length; i++) {
+            if (i > 1) sb.append(", ");
+            Object value = parameters[i];
+            String text;
+            if (value == null || value instanceof SqlNull) text = "NULL";
+            else if (value instanceof byte[]) text = "<" + ((byte[]) value).length + " bytes>";
+            else if (value instanceof InputStream || value instanceof Reader) text = "<stream>";
+            else if (value instanceof String) text = "'" + value + "'";
+            else text = String.valueOf(value);
+            sb.append(text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static boolean isSensitive(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        for (String column : SENSITIVE_COLUMNS) {
+            if (lower.contains(column)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSelect(String sql) {
+        String head = sql.stripLeading();
+        return head.regionMatches(true, 0, "SELECT", 0, 6) || head.regionMatches(true, 0, "WITH", 0, 4);
+    }
+
+    private void closeExplainConnection() {
+        if (explainConnection == null) return;
+        try {
+            explainConnection.close();
+        } catch (SQLException ignored) {
+        }
+        explainConnection = null;
+    }
+
+    public void close() {
+        closed = true;
+        writer.interrupt();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("threshold %d ms, logged %d, suppressed %d, dropped %d, explained %d -> %s",
+                TimeUnit.NANOSECONDS.toMillis(thresholdNanos), logged.sum(), suppressed.sum(), dropped.sum(),
+                explained.sum(), file);
+    }
+
+    /**
+     * Marks a parameter bound with setNull, keeping its SQL type for EXPLAIN
+     */
+    static final class SqlNull {
+        final int sqlType;
+
+        SqlNull(int sqlType) {
+            this.sqlType = sqlType;
+        }
+    }
+
+    private static final class Entry {
+        final LocalDateTime at;
+        final String name;
+        final String sql;
+        // 1-based like JDBC parameter indexes; slot 0 is unused
+        final Object[] parameters;
+        final long nanos;
+
+        Entry(LocalDateTime at, String name, String sql, Object[] parameters, long nanos) {
+            this.at = at;
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * At most max permits per fixed window; approximate under contention, which is all it needs to be
+     */
+    private static final class RateLimit {
+        private final long windowNanos;
+        private final int max;
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicInteger used = new AtomicInteger();
+
+        RateLimit(long windowNanos, int max) {
+            this.windowNanos = windowNanos;
+            this.max = max;
+        }
+
+        boolean tryAcquire() {
+            long now = System.nanoTime();
+            long start = windowStart.get();
+            if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) used.set(0);
+            return used.incrementAndGet() <= max;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.eshope_console.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ * Keeping the statement object alive lets the driver count its executions past prepareThreshold
+ * and switch to a named server-side statement, so later borrowers skip parse and plan.
+ * Only ever used by the thread currently leasing the connection.
+ */
+final class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) return false;
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * A statement handle for the given SQL. Closing the handle returns the statement to the cache.
+     * If the cached statement is already checked out (the same SQL open twice in one lease),
+     * the caller gets an uncached statement instead.
+     */
+    PreparedStatement prepare(String sql, Connection owner, List<StatementLease> leases) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse && cached.physical.isClosed()) {
+            statements.remove(sql);
+            cached = null;
+        }
+        if (cached != null && cached.inUse) {
+            misses.increment();
+            return physical.prepareStatement(sql);
+        }
+        if (cached == null) {
+            misses.increment();
+            cached = new CachedStatement(physical.prepareStatement(sql));
+            statements.put(sql, cached);
+        } else {
+            hits.increment();
+        }
+        cached.inUse = true;
+        StatementLease lease = new StatementLease(cached, owner);
+        leases.add(lease);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, lease);
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) closeQuietly();
+        }
+
+        void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * One checkout of a cached statement. close() clears its state and hands it back;
+     * the handle rejects further use, while the physical statement stays prepared.
+     */
+    static final class StatementLease implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean released = false;
+
+        private StatementLease(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return released || cached.physical.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.physical + "]";
+                default:
+                    if (released) throw new SQLException("Statement has already been closed", "HY010");
+                    Object result;
+                    try {
+                        result = method.invoke(cached.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    // DAOs often leave result sets to be closed with the statement; do that on release
+                    if (result instanceof ResultSet) openResults.add((ResultSet) result);
+                    return result;
+            }
+        }
+
+        /**
+         * Return the statement to the cache with no parameters, batches, results or per-use settings left over
+         */
+        void release() {
+            if (released) return;
+            released = true;
+            PreparedStatement physical = cached.physical;
+            try {
+                for (ResultSet rs : openResults) rs.close();
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.clearWarnings();
+                physical.setFetchSize(0);
+                physical.setMaxRows(0);
+                physical.setQueryTimeout(0);
+            } catch (SQLException e) {
+                cached.evicted = true;
+            }
+            openResults.clear();
+            cached.inUse = false;
+            if (cached.evicted) cached.closeQuietly();
+        }
+    }
+}
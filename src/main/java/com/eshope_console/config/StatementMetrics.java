@@ -0,0 +1,107 @@
+package com.eshope_console.config;
+
+import com.eshope_console.util.AtomicLatencyHistogram;
+import com.eshope_console.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one named statement: executions, failures, rows and execution latency.
+ * Updates are striped adders and atomic histogram buckets, so recording never allocates or blocks.
+ */
+public class StatementMetrics implements StatementMetricsMXBean {
+    private final String name;
+    private final String sql;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final AtomicLatencyHistogram latency = new AtomicLatencyHistogram();
+
+    StatementMetrics(String name, String sql) {
+        this.name = name;
+        this.sql = sql;
+    }
+
+    void recordExecution(long nanos) {
+        executions.increment();
+        latency.record(nanos);
+    }
+
+    void recordError(long nanos) {
+        executions.increment();
+        errors.increment();
+        latency.record(nanos);
+    }
+
+    void addRows(long count) {
+        if (count > 0) rows.add(count);
+    }
+
+    public QueryStats snapshot() {
+        return new QueryStats(name, sql, executions.sum(), errors.sum(), rows.sum(), latency.snapshot());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /** The first SQL text seen under this name */
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return snapshot().getTotalMillis();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.snapshot().getMean() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.snapshot().getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.snapshot().getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.snapshot().getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.snapshot().getMax() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        executions.reset();
+        errors.reset();
+        rows.reset();
+        latency.reset();
+    }
+}
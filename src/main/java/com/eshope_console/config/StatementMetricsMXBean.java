@@ -0,0 +1,30 @@
+package com.eshope_console.config;
+
+/**
+ * JMX view of one named statement's counters.
+ */
+public interface StatementMetricsMXBean {
+    String getName();
+
+    String getSql();
+
+    long getExecutions();
+
+    long getErrors();
+
+    long getRows();
+
+    double getTotalMillis();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -1,9 +1,23 @@
 package com.eshope_console.controller;
 
+import com.eshope_console.model.BenchmarkWorkload;
+import com.eshope_console.model.ExecutionMode;
+import com.eshope_console.model.ProductFilter;
+import com.eshope_console.model.User;
+import com.eshope_console.service.BenchmarkConfig;
+import com.eshope_console.service.BenchmarkResult;
+import com.eshope_console.service.BenchmarkService;
 import com.eshope_console.service.ReadProductService;
 import com.eshope_console.service.ProductService;
 import com.eshope_console.util.ConsoleColors;
 import com.eshope_console.view.ConsoleView;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 public class ReadProductController {
@@ -11,22 +25,31 @@ public class ReadProductController {
     private final ConsoleView consoleView;
     private final ReadProductService readProductService;
     private final ProductService productService;
+    private final BenchmarkService benchmarkService;
 
     public ReadProductController(Scanner scanner, ConsoleView consoleView,
                                  ReadProductService readProductService,
-                                 ProductService productService) {
+                                 ProductService productService,
+                                 BenchmarkService benchmarkService) {
         this.scanner = scanner;
         this.consoleView = consoleView;
         this.readProductService = readProductService;
         this.productService = productService;
+        this.benchmarkService = benchmarkService;
     }
 
-    public void showReadProductMenu() {
+    public void showReadProductMenu(User currentUser) {
         while (true) {
             System.out.println(ConsoleColors.CYAN_BOLD + "\n📊 PRODUCT READ OPERATIONS MENU" + ConsoleColors.RESET);
             System.out.println("1. Insert 10 Million Products (Prompt Truncate)");
             System.out.println("2. Read 10 Million Products");
-            System.out.println("3. Back to Main Menu");
+            System.out.println("3. Read 10 Million Products (Parallel)");
+            System.out.println("4. Load In-Memory Product Catalog");
+            System.out.println("5. Save Catalog Snapshot");
+            System.out.println("6. Filter Products with Facet Counts");
+            System.out.println("7. Run Latency Benchmarks");
+            System.out.println("8. Choose Execution Mode (current: " + readProductService.getExecutionMode().getCliName() + ")");
+            System.out.println("9. Back to Main Menu");
             System.out.print("\nEnter your choice: ");
 
             int choice = getIntInput();
@@ -34,8 +57,13 @@ public class ReadProductController {
             switch (choice) {
                 case 1 -> handleInsert10MillionProductsWithTruncatePrompt();
                 case 2 -> handleRead10MillionProducts();
-                case 3 -> {
-                    readProductService.shutdown();
+                case 3 -> handleRead10MillionProductsInParallel();
+                case 4 -> readProductService.loadProductCatalog();
+                case 5 -> readProductService.saveProductCatalogSnapshot();
+                case 6 -> handleFilterProducts();
+                case 7 -> handleRunBenchmarks(currentUser);
+                case 8 -> handleChooseExecutionMode();
+                case 9 -> {
                     return;
                 }
                 default -> consoleView.showError("Invalid choice. Please try again.");
@@ -55,6 +83,120 @@ public class ReadProductController {
         readProductService.read10MillionProducts();
     }
 
+    private void handleRead10MillionProductsInParallel() {
+        System.out.println("Deliver rows in id order? (yes/no): ");
+        String answer = scanner.nextLine().trim().toLowerCase();
+        boolean ordered = "yes".equals(answer) || "y".equals(answer);
+        readProductService.read10MillionProductsInParallel(ordered);
+    }
+
+    private void handleFilterProducts() {
+        System.out.println("Leave any criterion blank to skip it.");
+        ProductFilter filter = new ProductFilter();
+        System.out.print("Category id: ");
+        filter.setCategoryId(emptyToNull(scanner.nextLine()));
+        System.out.print("Minimum price: ");
+        filter.setMinPrice(parseDouble(scanner.nextLine()));
+        System.out.print("Maximum price: ");
+        filter.setMaxPrice(parseDouble(scanner.nextLine()));
+        System.out.print("Minimum stock: ");
+        Double minStock = parseDouble(scanner.nextLine());
+        filter.setMinStock(minStock == null ? null : minStock.intValue());
+        System.out.print("Keyword: ");
+        filter.setKeyword(emptyToNull(scanner.nextLine()));
+        readProductService.showFilteredProducts(filter);
+    }
+
+    private void handleChooseExecutionMode() {
+        System.out.println(ConsoleColors.CYAN_BOLD + "\n🧵 Execution Mode" + ConsoleColors.RESET);
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            System.out.printf("   %-10s %s%n", mode.getCliName(), mode.getDescription());
+        }
+        System.out.print("Mode for parallel reads and benchmarks (blank to keep " + readProductService.getExecutionMode().getCliName() + "): ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) return;
+        try {
+            readProductService.setExecutionMode(ExecutionMode.fromCliName(input));
+            consoleView.showSuccess("Execution mode set to " + readProductService.getExecutionMode().getCliName());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            consoleView.showError(e.getMessage());
+        }
+    }
+
+    private void handleRunBenchmarks(User currentUser) {
+        System.out.println(ConsoleColors.CYAN_BOLD + "\n⏱️  Latency Benchmarks" + ConsoleColors.RESET);
+        for (BenchmarkWorkload workload : BenchmarkWorkload.values()) {
+            System.out.printf("   %-16s %s%n", workload.getCliName(), workload.getDescription());
+        }
+        BenchmarkConfig config = new BenchmarkConfig();
+        config.setExecutionMode(readProductService.getExecutionMode());
+        System.out.println("Worker threads: " + config.getExecutionMode().getDescription() + " (change with option 8)");
+        try {
+            System.out.print("Workloads (comma-separated, blank for all read workloads): ");
+            String workloads = scanner.nextLine().trim();
+            config.setWorkloads(BenchmarkWorkload.parseList(workloads.isEmpty() ? "reads" : workloads));
+            if (config.getWorkloads().contains(BenchmarkWorkload.CHECKOUT)) {
+                System.out.print("Checkout places real orders as " + currentUser.getUsername() + ". Continue? (yes/no): ");
+                String answer = scanner.nextLine().trim().toLowerCase();
+                if (!"yes".equals(answer) && !"y".equals(answer)) {
+                    List<BenchmarkWorkload> withoutCheckout = new ArrayList<>(config.getWorkloads());
+                    withoutCheckout.remove(BenchmarkWorkload.CHECKOUT);
+                    config.setWorkloads(withoutCheckout);
+                }
+                config.setCheckoutUserId(currentUser.getUserId());
+            }
+            System.out.print("Concurrency levels (blank for 1,4,16): ");
+            String levels = scanner.nextLine().trim();
+            if (!levels.isEmpty()) {
+                config.setConcurrencyLevels(Arrays.stream(levels.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray());
+            }
+            System.out.print("Seconds per workload and level (blank for 10): ");
+            Double duration = parseDouble(scanner.nextLine());
+            if (duration != null) config.setDurationSeconds(duration.intValue());
+            System.out.print("Warm-up seconds (blank for 3): ");
+            Double warmup = parseDouble(scanner.nextLine());
+            if (warmup != null) config.setWarmupSeconds(warmup.intValue());
+        } catch (IllegalArgumentException e) {
+            consoleView.showError(e.getMessage());
+            return;
+        }
+
+        Path baselineFile = BenchmarkService.defaultBaselineFile();
+        config.setResultsFile(BenchmarkService.defaultResultsFile());
+        try {
+            List<BenchmarkResult> results = benchmarkService.run(config, System.out::println);
+            List<BenchmarkResult> baseline = Files.exists(baselineFile) ? BenchmarkService.readResults(baselineFile) : null;
+            System.out.println();
+            BenchmarkService.report(results, baseline).forEach(System.out::println);
+            consoleView.showSuccess("Results written to " + config.getResultsFile().toAbsolutePath());
+
+            System.out.print("Save these results as the baseline for later runs? (yes/no): ");
+            String answer = scanner.nextLine().trim().toLowerCase();
+            if ("yes".equals(answer) || "y".equals(answer)) {
+                Files.copy(config.getResultsFile(), baselineFile, StandardCopyOption.REPLACE_EXISTING);
+                consoleView.showSuccess("Baseline saved to " + baselineFile.toAbsolutePath());
+            }
+        } catch (Exception e) {
+            consoleView.showError("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    private static String emptyToNull(String input) {
+        String trimmed = input.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private Double parseDouble(String input) {
+        String trimmed = input.trim();
+        if (trimmed.isEmpty()) return null;
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            consoleView.showWarning("Ignoring invalid number: " + trimmed);
+            return null;
+        }
+    }
+
     private int getIntInput() {
         try {
             return Integer.parseInt(scanner.nextLine().trim());
@@ -1,5 +1,9 @@
 package com.eshope_console.controller;
 
+import com.eshope_console.config.DatabaseConfig;
+import com.eshope_console.config.QueryMetrics;
+import com.eshope_console.config.QueryStats;
+import com.eshope_console.model.KeysetPage;
 import com.eshope_console.model.Order;
 import com.eshope_console.model.Product;
 import com.eshope_console.model.User;
@@ -7,11 +11,14 @@ import com.eshope_console.service.*;
 import com.eshope_console.view.ConsoleView;
 import com.eshope_console.view.MenuView;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
 public class ShopController {
+    private static final int ORDER_HISTORY_PAGE_SIZE = 20;
+
     private final Scanner scanner;
     private final MenuView menuView;
     private final ConsoleView consoleView;
@@ -95,7 +102,8 @@ public class ShopController {
             case 3 -> handleCartManagement();
             case 4 -> handleOrderHistory();
             case 5 -> handleReadProductOperations();
-            case 6 -> handleLogout();
+            case 6 -> handleQueryMetrics();
+            case 7 -> handleLogout();
         }
     }
 
@@ -232,9 +240,31 @@ public class ShopController {
 
     private void handleOrderHistory() {
         try {
-            List<Order> orders = orderService.getUserOrders(currentUser.getUserId());
-            consoleView.showOrderHistory(orders);
-            menuView.pressEnterToContinue();
+            KeysetPage<Order> page = orderService.getOrderHistoryPage(currentUser.getUserId(), null, ORDER_HISTORY_PAGE_SIZE);
+            while (true) {
+                consoleView.showOrderHistory(page.getItems());
+                if (page.getItems().isEmpty()) {
+                    menuView.pressEnterToContinue();
+                    return;
+                }
+                String action = menuView.getOrderHistoryAction(page.hasNext());
+                if (action.isEmpty()) {
+                    return;
+                } else if (action.equalsIgnoreCase("n") && page.hasNext()) {
+                    page = orderService.getOrderHistoryPage(currentUser.getUserId(), page.getNextPageToken(), ORDER_HISTORY_PAGE_SIZE);
+                } else {
+                    Order order = page.getItems().stream()
+                            .filter(o -> o.getOrderCode().equalsIgnoreCase(action))
+                            .findFirst().orElse(null);
+                    if (order == null) {
+                        consoleView.showError("No order " + action + " on this page.");
+                    } else {
+                        orderService.loadOrderItems(List.of(order));
+                        consoleView.showOrderDetails(order);
+                    }
+                    menuView.pressEnterToContinue();
+                }
+            }
         } catch (Exception e) {
             consoleView.showError(e.getMessage());
             menuView.pressEnterToContinue();
@@ -242,7 +272,42 @@ public class ShopController {
     }
 
     private void handleReadProductOperations() {
-        readProductController.showReadProductMenu();
+        readProductController.showReadProductMenu(currentUser);
+    }
+
+    private void handleQueryMetrics() {
+        QueryMetrics queryMetrics = DatabaseConfig.getQueryMetrics();
+        while (true) {
+            if (!DatabaseConfig.isQueryMetricsEnabled()) {
+                consoleView.showWarning("Query metrics are disabled (start with -Deshop.metrics.enabled=true).");
+            }
+            List<QueryStats> stats = queryMetrics.snapshot();
+            consoleView.showQueryMetrics(stats);
+            consoleView.showMessage("🔌 Connection pool: " + DatabaseConfig.getPoolStats());
+            if (DatabaseConfig.getSlowQueryLog() != null) {
+                consoleView.showMessage("🐢 Slow query log: " + DatabaseConfig.getSlowQueryLog());
+            }
+            switch (menuView.showMetricsMenu()) {
+                case 1 -> {
+                }
+                case 2 -> {
+                    queryMetrics.reset();
+                    consoleView.showSuccess("Query metrics reset.");
+                }
+                case 3 -> {
+                    try {
+                        Path file = QueryMetrics.defaultSnapshotFile();
+                        QueryMetrics.writeSnapshot(stats, file);
+                        consoleView.showSuccess("Snapshot saved to " + file);
+                    } catch (Exception e) {
+                        consoleView.showError("Could not save snapshot: " + e.getMessage());
+                    }
+                }
+                case 4 -> {
+                    return;
+                }
+            }
+        }
     }
 
     private void handleLogout() {
@@ -0,0 +1,98 @@
+package com.eshope_console.dao;
+
+import com.eshope_console.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out prefixed string ids ("O001", "OI001", "USR001") from a PostgreSQL sequence.
+ * The sequence starts at and increments by the block size, and each nextval reserves the whole
+ * block ending at the returned value (pooled hi/lo), so only one id in a block costs a round trip.
+ * Ids are unique across sessions; a block left unused when the process exits becomes a gap.
+ */
+public class IdAllocator {
+    private static final int DEFAULT_BLOCK_SIZE = Integer.getInteger("eshop.ids.blockSize", 50);
+
+    static final IdAllocator ORDERS = new IdAllocator("orders", "order_id_seq", "O");
+    static final IdAllocator ORDER_ITEMS = new IdAllocator("order_items", "order_item_id_seq", "OI");
+    static final IdAllocator USERS = new IdAllocator("users", "user_id_seq", "USR");
+
+    private final String table;
+    private final String sequence;
+    private final String prefix;
+    private boolean initialized = false;
+    private long blockSize;
+    private long next = 0;
+    private long blockEnd = -1;
+
+    private IdAllocator(String table, String sequence, String prefix) {
+        this.table = table;
+        this.sequence = sequence;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Create and seed every sequence on one autocommit connection. Called once at startup so
+     * ordinary id allocation never has to set them up from inside a caller's transaction.
+     */
+    public static void initializeAll() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            for (IdAllocator allocator : new IdAllocator[] {ORDERS, ORDER_ITEMS, USERS}) {
+                synchronized (allocator) {
+                    if (!allocator.initialized) allocator.initialize(conn);
+                }
+            }
+        }
+    }
+
+    /**
+     * Next id, fetching a new block on the given connection if needed.
+     * nextval is not transactional, so this is safe inside a transaction that later rolls back.
+     */
+    public synchronized String nextId(Connection conn) throws SQLException {
+        if (next > blockEnd) {
+            if (!initialized) initialize(conn);
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT nextval(?)")) {
+                stmt.setString(1, sequence);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    blockEnd = rs.getLong(1);
+                    next = blockEnd - blockSize + 1;
+                }
+            }
+        }
+        return format(next++);
+    }
+
+    private String format(long value) {
+        return String.format("%s%03d", prefix, value);
+    }
+
+    /**
+     * Create the sequence if the schema predates it, move it past ids already in the table,
+     * and read its increment as the block size. Runs on the given connection; if that connection
+     * is inside a transaction the setup could still be rolled back, so it is only marked done
+     * when it ran under autocommit and is otherwise repeated (it is idempotent) next block.
+     */
+    private void initialize(Connection conn) throws SQLException {
+        String seedSql = "SELECT setval('" + sequence + "', t.max_id) FROM "
+                + "(SELECT MAX(CAST(SUBSTRING(id FROM " + (prefix.length() + 1) + ") AS BIGINT)) AS max_id "
+                + "FROM " + table + " WHERE id ~ '^" + prefix + "[0-9]+$') t, " + sequence + " s "
+                + "WHERE t.max_id > 0 AND (NOT s.is_called OR t.max_id > s.last_value)";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence
+                    + " INCREMENT BY " + DEFAULT_BLOCK_SIZE + " START WITH " + DEFAULT_BLOCK_SIZE);
+            stmt.execute(seedSql);
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT seqincrement FROM pg_sequence WHERE seqrelid = '" + sequence + "'::regclass")) {
+                rs.next();
+                blockSize = rs.getLong(1);
+            }
+        }
+        initialized = conn.getAutoCommit();
+    }
+}
@@ -0,0 +1,21 @@
+package com.eshope_console.dao;
+
+import java.sql.SQLException;
+
+/**
+ * A conditional stock decrement found fewer units than requested; the surrounding transaction was rolled back.
+ */
+public class InsufficientStockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    private final String productId;
+
+    public InsufficientStockException(String productId) {
+        super("Not enough stock for product " + productId);
+        this.productId = productId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+}
@@ -5,19 +5,30 @@ import com.eshope_console.model.Order;
 import com.eshope_console.model.OrderItem;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class OrderDAO {
+    /**
+     * Save the order and its items and take the ordered quantities out of stock, all in one transaction.
+     * Throws InsufficientStockException (and saves nothing) if any product has less stock than ordered.
+     */
     public Order createOrder(Order order) throws SQLException {
+        String stockSql = "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
         String orderSql = "INSERT INTO orders (id, user_id, total_amount, created_at) VALUES (?, ?, ?, ?) RETURNING id";
         String itemSql = "INSERT INTO order_items (id, order_id, product_id, quantity, price) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConfig.getConnection()) {
             conn.setAutoCommit(false);
             try {
+                decrementStock(conn, stockSql, order.getOrderItems());
                 String orderId;
                 try (PreparedStatement stmt = conn.prepareStatement(orderSql)) {
-                    stmt.setString(1, generateOrderId());
+                    stmt.setString(1, IdAllocator.ORDERS.nextId(conn));
                     stmt.setString(2, order.getUserId());
                     stmt.setDouble(3, order.getTotalPrice());
                     stmt.setTimestamp(4, Timestamp.valueOf(order.getOrderDate()));
@@ -29,7 +40,7 @@ public class OrderDAO {
                 }
                 try (PreparedStatement stmt = conn.prepareStatement(itemSql)) {
                     for (OrderItem item : order.getOrderItems()) {
-                        stmt.setString(1, generateOrderItemId());
+                        stmt.setString(1, IdAllocator.ORDER_ITEMS.nextId(conn));
                         stmt.setString(2, order.getOrderId());
                         stmt.setString(3, item.getProductId());
                         stmt.setInt(4, item.getQuantity());
@@ -49,6 +60,28 @@ public class OrderDAO {
         }
     }
 
+    // Rows are updated in product id order so concurrent checkouts lock them in the same order
+    private void decrementStock(Connection conn, String sql, List<OrderItem> items) throws SQLException {
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        List<String> productIds = new ArrayList<>(quantities.keySet());
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (String productId : productIds) {
+                int quantity = quantities.get(productId);
+                stmt.setInt(1, quantity);
+                stmt.setString(2, productId);
+                stmt.setInt(3, quantity);
+                stmt.addBatch();
+            }
+            int[] results = stmt.executeBatch();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == 0) throw new InsufficientStockException(productIds.get(i));
+            }
+        }
+    }
+
     public List<Order> findByUserId(String userId) throws SQLException {
         List<Order> orders = new ArrayList<>();
         String sql = "SELECT * FROM orders WHERE user_id = ? ORDER BY created_at DESC";
@@ -56,47 +89,68 @@ public class OrderDAO {
             stmt.setString(1, userId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(findOrderItems(conn, order.getOrderId()));
-                orders.add(order);
+                orders.add(mapResultSetToOrder(rs));
             }
+            attachOrderItems(conn, orders);
         }
         return orders;
     }
 
-    private String generateOrderId() throws SQLException {
-        String sql = "SELECT id FROM orders ORDER BY id DESC LIMIT 1";
-        try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                String lastId = rs.getString("id");
-                int nextNum = Integer.parseInt(lastId.substring(1)) + 1;
-                return String.format("O%03d", nextNum);
-            } else {
-                return "O001";
+    /**
+     * One page of a user's orders, newest first, without their items.
+     * Keyset on (created_at, id); pass null keys for the first page. Item counts are summed in SQL.
+     */
+    public List<Order> findOrderSummariesAfter(String userId, LocalDateTime afterCreatedAt, String afterId, int limit) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        boolean hasKey = afterCreatedAt != null && afterId != null;
+        String sql = "SELECT o.*, (SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi WHERE oi.order_id = o.id) AS item_count " +
+                    "FROM orders o WHERE o.user_id = ? " +
+                    (hasKey ? "AND (o.created_at, o.id) < (?, ?) " : "") +
+                    "ORDER BY o.created_at DESC, o.id DESC " +
+                    "LIMIT ?";
+        try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setString(index++, userId);
+            if (hasKey) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(afterCreatedAt));
+                stmt.setString(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Order order = mapResultSetToOrder(rs);
+                order.setItemCount(rs.getInt("item_count"));
+                orders.add(order);
             }
         }
+        return orders;
     }
 
-    private String generateOrderItemId() throws SQLException {
-        String sql = "SELECT id FROM order_items ORDER BY id DESC LIMIT 1";
-        try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+    /**
+     * Items of several orders in one query, grouped by order id
+     */
+    public Map<String, List<OrderItem>> findItemsByOrderIds(Collection<String> orderIds) throws SQLException {
+        if (orderIds.isEmpty()) return new HashMap<>();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return findItemsByOrderIds(conn, orderIds);
+        }
+    }
 
-            if (rs.next()) {
-                String lastId = rs.getString("id");
-                int nextNum = Integer.parseInt(lastId.substring(2)) + 1;
-                return String.format("OI%03d", nextNum);
-            } else {
-                return "OI001";
-            }
+    private void attachOrderItems(Connection conn, List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) return;
+        List<String> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) orderIds.add(order.getOrderId());
+        Map<String, List<OrderItem>> items = findItemsByOrderIds(conn, orderIds);
+        for (Order order : orders) {
+            order.setOrderItems(items.getOrDefault(order.getOrderId(), new ArrayList<>()));
         }
     }
 
-    private List<OrderItem> findOrderItems(Connection conn, String orderId) throws SQLException {
-        List<OrderItem> items = new ArrayList<>();
-        String sql = "SELECT oi.*, p.id as product_code, p.name as product_name FROM order_items oi LEFT JOIN products p ON oi.product_id = p.id WHERE oi.order_id = ?";
+    private Map<String, List<OrderItem>> findItemsByOrderIds(Connection conn, Collection<String> orderIds) throws SQLException {
+        Map<String, List<OrderItem>> items = new HashMap<>();
+        String sql = "SELECT oi.*, p.id as product_code, p.name as product_name FROM order_items oi LEFT JOIN products p ON oi.product_id = p.id WHERE oi.order_id = ANY(?) ORDER BY oi.order_id, oi.id";
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, orderId);
+            stmt.setArray(1, conn.createArrayOf("varchar", orderIds.toArray()));
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 OrderItem item = new OrderItem();
@@ -107,7 +161,7 @@ public class OrderDAO {
                 item.setProductName(rs.getString("product_name"));
                 item.setQuantity(rs.getInt("quantity"));
                 item.setPricePerItem(rs.getDouble("price"));
-                items.add(item);
+                items.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>()).add(item);
             }
         }
         return items;
@@ -0,0 +1,31 @@
+package com.eshope_console.dao;
+
+import com.eshope_console.model.Product;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * COPY writer pinned to one pooled connection for its whole lifetime.
+ * Each write() is its own COPY statement, so a chunk is either fully loaded or not at all.
+ */
+public class ProductBulkWriter implements AutoCloseable {
+    private final Connection conn;
+    private final ProductCopyLoader loader;
+
+    ProductBulkWriter(Connection conn, ProductCopyLoader.Format format) {
+        this.conn = conn;
+        this.loader = new ProductCopyLoader(format);
+    }
+
+    public int write(List<Product> products) throws SQLException {
+        if (products.isEmpty()) return 0;
+        return loader.copyIn(conn, products);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        conn.close();
+    }
+}
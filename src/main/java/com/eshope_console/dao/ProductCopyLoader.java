@@ -0,0 +1,218 @@
+package com.eshope_console.dao;
+
+import com.eshope_console.model.Product;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Streams products into PostgreSQL with COPY ... FROM STDIN.
+ * Rows are encoded one at a time straight into the driver's copy buffer,
+ * so memory use does not grow with the number of rows.
+ */
+public class ProductCopyLoader {
+    public enum Format {
+        TEXT, CSV, BINARY
+    }
+
+    private static final String TABLE_COLUMNS = "products (id, name, description, price, stock_quantity, category_id, created_at)";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short COLUMN_COUNT = 7;
+    // PostgreSQL timestamps count microseconds from 2000-01-01 00:00:00
+    private static final long PG_EPOCH_SECONDS = 946_684_800L;
+    private static final short NUMERIC_POSITIVE = 0x0000;
+    private static final short NUMERIC_NEGATIVE = 0x4000;
+
+    private final Format format;
+
+    public ProductCopyLoader(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Copy all products over the given connection. Returns the number of rows the server accepted.
+     */
+    public int copyIn(Connection conn, Iterable<Product> products) throws SQLException {
+        CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+        PGCopyOutputStream out = new PGCopyOutputStream(copyManager.copyIn(copyCommand()), BUFFER_SIZE);
+        try {
+            switch (format) {
+                case TEXT -> writeText(out, products, '\t');
+                case CSV -> writeText(out, products, ',');
+                case BINARY -> writeBinary(out, products);
+            }
+            return (int) out.endCopy();
+        } catch (IOException e) {
+            cancelQuietly(out);
+            throw new SQLException("COPY into products failed: " + e.getMessage(), e);
+        } catch (SQLException | RuntimeException e) {
+            cancelQuietly(out);
+            throw e;
+        }
+    }
+
+    private String copyCommand() {
+        return switch (format) {
+            case TEXT -> "COPY " + TABLE_COLUMNS + " FROM STDIN";
+            case CSV -> "COPY " + TABLE_COLUMNS + " FROM STDIN WITH (FORMAT csv)";
+            case BINARY -> "COPY " + TABLE_COLUMNS + " FROM STDIN WITH (FORMAT binary)";
+        };
+    }
+
+    private void writeText(PGCopyOutputStream out, Iterable<Product> products, char delimiter) throws IOException {
+        // Not closed on purpose: closing would end the COPY before endCopy() can report the row count
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        for (Product product : products) {
+            writeTextField(writer, product.getProductId(), delimiter);
+            writer.write(delimiter);
+            writeTextField(writer, product.getProductName(), delimiter);
+            writer.write(delimiter);
+            writeTextField(writer, product.getDescription(), delimiter);
+            writer.write(delimiter);
+            writePrice(writer, toCents(product.getPrice()));
+            writer.write(delimiter);
+            writer.write(Integer.toString(product.getStockQuantity()));
+            writer.write(delimiter);
+            writeTextField(writer, product.getCategoryId(), delimiter);
+            writer.write(delimiter);
+            writer.write(product.getCreatedAt().toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeTextField(Writer writer, String value, char delimiter) throws IOException {
+        if (delimiter == ',') {
+            // CSV: an unquoted empty field is NULL, a quoted one is an empty string
+            if (value == null) return;
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+            return;
+        }
+        if (value == null) {
+            writer.write("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private void writePrice(Writer writer, long cents) throws IOException {
+        if (cents < 0) {
+            writer.write('-');
+            cents = -cents;
+        }
+        writer.write(Long.toString(cents / 100));
+        writer.write('.');
+        long fraction = cents % 100;
+        if (fraction < 10) writer.write('0');
+        writer.write(Long.toString(fraction));
+    }
+
+    private void writeBinary(PGCopyOutputStream out, Iterable<Product> products) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(BINARY_SIGNATURE);
+        data.writeInt(0); // flags
+        data.writeInt(0); // header extension length
+
+        for (Product product : products) {
+            data.writeShort(COLUMN_COUNT);
+            writeBinaryString(data, product.getProductId());
+            writeBinaryString(data, product.getProductName());
+            writeBinaryString(data, product.getDescription());
+            writeBinaryNumeric(data, toCents(product.getPrice()));
+            data.writeInt(4);
+            data.writeInt(product.getStockQuantity());
+            writeBinaryString(data, product.getCategoryId());
+            data.writeInt(8);
+            data.writeLong(toPgMicros(product.getCreatedAt()));
+        }
+        data.writeShort(-1); // file trailer
+        data.flush();
+    }
+
+    private void writeBinaryString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Encode a two-decimal amount in PostgreSQL's numeric wire format: base-10000 digit groups
+     * with a weight (exponent of the first group) and a display scale.
+     */
+    private void writeBinaryNumeric(DataOutputStream data, long cents) throws IOException {
+        short sign = cents < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE;
+        long integerPart = Math.abs(cents) / 100;
+        int fractionGroup = (int) (Math.abs(cents) % 100) * 100;
+
+        short[] groups = new short[6];
+        int integerGroups = 0;
+        for (long rest = integerPart; rest > 0; rest /= 10_000) integerGroups++;
+        long rest = integerPart;
+        for (int i = integerGroups - 1; i >= 0; i--) {
+            groups[i] = (short) (rest % 10_000);
+            rest /= 10_000;
+        }
+        int digitCount = integerGroups;
+        if (fractionGroup != 0) groups[digitCount++] = (short) fractionGroup;
+        while (digitCount > 0 && groups[digitCount - 1] == 0) digitCount--;
+        short weight = (short) (integerGroups > 0 ? integerGroups - 1 : -1);
+        if (digitCount == 0) {
+            weight = 0;
+            sign = NUMERIC_POSITIVE;
+        }
+
+        data.writeInt(8 + 2 * digitCount);
+        data.writeShort(digitCount);
+        data.writeShort(weight);
+        data.writeShort(sign);
+        data.writeShort(2); // display scale
+        for (int i = 0; i < digitCount; i++) data.writeShort(groups[i]);
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    private static long toPgMicros(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC) - PG_EPOCH_SECONDS;
+        return seconds * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static void cancelQuietly(PGCopyOutputStream out) {
+        try {
+            if (out.isActive()) out.cancelCopy();
+        } catch (SQLException ignored) {
+        }
+    }
+}
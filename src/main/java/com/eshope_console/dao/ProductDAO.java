@@ -1,41 +1,108 @@
 package com.eshope_console.dao;
 
 import com.eshope_console.config.DatabaseConfig;
+import com.eshope_console.model.FacetCount;
 import com.eshope_console.model.Product;
+import com.eshope_console.model.ProductFacets;
+import com.eshope_console.model.ProductFilter;
+import com.eshope_console.model.ProductSummary;
+import com.eshope_console.model.SearchMode;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ProductDAO {
+    // Every column a Product holds, for single-product lookups
+    private static final String PRODUCT_COLUMNS =
+            "p.id, p.name, p.description, p.price, p.stock_quantity, p.category_id, p.created_at, c.name AS category_name";
+    // Lists, pages and scans never show the description, so they skip fetching the TEXT column
+    private static final String LIST_COLUMNS =
+            "p.id, p.name, p.price, p.stock_quantity, p.category_id, p.created_at, c.name AS category_name";
+    // What a ProductSummary holds
+    private static final String SUMMARY_COLUMNS =
+            "p.id, p.name, p.price, p.stock_quantity, p.category_id, c.name AS category_name";
+    // A product matches on its own name or through its category. The matching category ids are
+    // resolved first against the small categories table and bound as an array: an IN (SELECT ...)
+    // under OR is planned as a hashed SubPlan filter over every product row, while
+    // category_id = ANY(?) lets the planner BitmapOr the name index with idx_products_category.
+    private static final String CONTAINS_PREDICATE =
+            "(LOWER(p.name) LIKE ? OR p.category_id = ANY(?))";
+    private static final String TRIGRAM_PREDICATE =
+            "(? <% LOWER(p.name) OR p.category_id = ANY(?))";
+    private static final String FULL_TEXT_PREDICATE =
+            "(to_tsvector('simple', p.name) @@ plainto_tsquery('simple', ?) OR p.category_id = ANY(?))";
+
     public Product findByCode(String code) throws SQLException {
-        String sql = "SELECT p.*, c.name as category_name FROM products p LEFT JOIN categories c ON p.category_id = c.id WHERE p.id = ?";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products p LEFT JOIN categories c ON p.category_id = c.id WHERE p.id = ?";
         try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, code);
             ResultSet rs = stmt.executeQuery();
-            if (rs.next()) return mapResultSetToProductWithCategory(rs);
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            if (rs.next()) return mapper.mapProduct(rs);
         }
         return null;
     }
 
+    /**
+     * Fetch several products by code in one round trip. Codes that do not exist are absent from the map.
+     */
+    public Map<String, Product> findByCodes(Collection<String> codes) throws SQLException {
+        Map<String, Product> products = new HashMap<>();
+        if (codes.isEmpty()) return products;
+
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products p LEFT JOIN categories c ON p.category_id = c.id WHERE p.id = ANY(?)";
+        try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", codes.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                Product product = mapper.mapProduct(rs);
+                products.put(product.getProductCode(), product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Fetch products by code in one round trip, returned in the order the codes were given.
+     * Codes that do not exist are skipped.
+     */
+    public List<Product> findByCodesInOrder(List<String> codes) throws SQLException {
+        Map<String, Product> byCode = findByCodes(codes);
+        List<Product> products = new ArrayList<>(byCode.size());
+        for (String code : codes) {
+            Product product = byCode.get(code);
+            if (product != null) products.add(product);
+        }
+        return products;
+    }
+
     public List<Product> findAllWithCategories() throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT p.*, c.name as category_name FROM products p LEFT JOIN categories c ON p.category_id = c.id ORDER BY c.name, p.name";
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p LEFT JOIN categories c ON p.category_id = c.id ORDER BY c.name, p.name";
         try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) products.add(mapResultSetToProductWithCategory(rs));
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) products.add(mapper.mapProduct(rs));
         }
         return products;
     }
 
     public List<Product> searchByNameOrCategory(String keyword) throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT p.*, c.name as category_name FROM products p LEFT JOIN categories c ON p.category_id = c.id WHERE LOWER(p.name) LIKE ? OR LOWER(c.name) LIKE ? ORDER BY c.name, p.name";
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p LEFT JOIN categories c ON p.category_id = c.id WHERE " + CONTAINS_PREDICATE + " ORDER BY c.name, p.name";
         try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             String searchPattern = "%" + keyword.toLowerCase() + "%";
             stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
+            stmt.setArray(2, matchingCategoryIds(conn, SearchMode.CONTAINS, searchPattern));
             ResultSet rs = stmt.executeQuery();
-            while (rs.next()) products.add(mapResultSetToProductWithCategory(rs));
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) products.add(mapper.mapProduct(rs));
         }
         return products;
     }
@@ -98,7 +165,6 @@ public class ProductDAO {
                         for (int result : results) {
                             if (result >= 0) totalInserted += result;
                         }
-                        System.out.println("Inserted batch: " + (i + 1) + "/" + products.size() + " products");
                     }
                 }
                 conn.commit();
@@ -110,6 +176,24 @@ public class ProductDAO {
         return totalInserted;
     }
 
+    /**
+     * Bulk insert products through the COPY protocol
+     */
+    public int copyInsertProducts(List<Product> products, ProductCopyLoader.Format format) throws SQLException {
+        if (products.isEmpty()) return 0;
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return new ProductCopyLoader(format).copyIn(conn, products);
+        }
+    }
+
+    /**
+     * Open a COPY writer that keeps one connection until it is closed
+     */
+    public ProductBulkWriter openBulkWriter(ProductCopyLoader.Format format) throws SQLException {
+        return new ProductBulkWriter(DatabaseConfig.getConnection(), format);
+    }
+
     /**
      * Get products with pagination for large datasets
      */
@@ -117,7 +201,7 @@ public class ProductDAO {
         List<Product> products = new ArrayList<>();
         int offset = (page - 1) * pageSize;
         
-        String sql = "SELECT p.*, c.name as category_name FROM products p " +
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
                     "LEFT JOIN categories c ON p.category_id = c.id " +
                     "ORDER BY p.id " +
                     "LIMIT ? OFFSET ?";
@@ -127,13 +211,32 @@ public class ProductDAO {
             stmt.setInt(1, pageSize);
             stmt.setInt(2, offset);
             ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
             while (rs.next()) {
-                products.add(mapResultSetToProductWithCategory(rs));
+                products.add(mapper.mapProduct(rs));
             }
         }
         return products;
     }
 
+    /**
+     * Planner estimate of the product row count: reltuples per page times the table's current pages.
+     * Returns -1 when there are no statistics yet (never vacuumed or analyzed) or the table has no pages.
+     */
+    public long getEstimatedProductCount() throws SQLException {
+        String sql = "SELECT CASE WHEN c.reltuples < 0 OR c.relpages = 0 THEN -1 " +
+                    "ELSE (c.reltuples / c.relpages * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint END " +
+                    "FROM pg_class c WHERE c.oid = 'products'::regclass";
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        }
+        return -1;
+    }
+
     /**
      * Get total count of products
      */
@@ -149,6 +252,204 @@ public class ProductDAO {
         return 0;
     }
 
+    /**
+     * Stream every product in id order through a server-side cursor.
+     * Autocommit is turned off so the driver fetches fetchSize rows at a time instead of
+     * buffering the whole result; the visitor sees each row once and nothing is retained.
+     */
+    public long scanProducts(int fetchSize, Consumer<? super Product> visitor) throws SQLException {
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "ORDER BY p.id";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                long count = visitRows(stmt, visitor);
+                conn.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Like scanProducts, but as compact summaries without description or creation time
+     */
+    public long scanProductSummaries(int fetchSize, Consumer<? super ProductSummary> visitor) throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "ORDER BY p.id";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                long count = visitSummaries(stmt, visitor);
+                conn.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Stream products inserted or updated by transactions at or after xminHorizon (a value from
+     * getXminHorizon), in id order. The server still reads the whole heap, but only changed rows
+     * are sent. Horizons older than about two billion transactions are no longer comparable.
+     */
+    public long scanProductsModifiedSince(long xminHorizon, int fetchSize, Consumer<? super Product> visitor) throws SQLException {
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE age(p.xmin) <= age((?::bigint % 4294967296)::text::xid) " +
+                    "ORDER BY p.id";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setLong(1, xminHorizon);
+                stmt.setFetchSize(fetchSize);
+                long count = visitRows(stmt, visitor);
+                conn.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Oldest transaction id still running. Every row changed after this call has an xmin at or past it.
+     */
+    public long getXminHorizon() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT txid_snapshot_xmin(txid_current_snapshot())")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Storage file number of the products table; TRUNCATE, VACUUM FULL and CLUSTER change it
+     */
+    public long getProductsFilenode() throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_relation_filenode('products'::regclass)")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Export a snapshot that parallel range scans can share for a consistent view
+     */
+    public ProductSnapshot exportSnapshot() throws SQLException {
+        return ProductSnapshot.export();
+    }
+
+    /**
+     * Split the id space into roughly equal ranges. Returns the partitions - 1 interior boundaries in order.
+     * Uses the planner's histogram when the table has been analyzed, otherwise a 1% block sample.
+     */
+    public List<String> findIdPartitionBoundaries(int partitions) throws SQLException {
+        List<String> sample = new ArrayList<>();
+        String statsSql = "SELECT unnest(histogram_bounds::text::text[]) FROM pg_stats " +
+                "WHERE schemaname = current_schema() AND tablename = 'products' AND attname = 'id'";
+        String sampleSql = "SELECT id FROM products TABLESAMPLE SYSTEM (1) ORDER BY id";
+
+        try (Connection conn = DatabaseConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(statsSql)) {
+                while (rs.next()) sample.add(rs.getString(1));
+            }
+            if (sample.size() < partitions) {
+                sample.clear();
+                try (ResultSet rs = stmt.executeQuery(sampleSql)) {
+                    while (rs.next()) sample.add(rs.getString(1));
+                }
+            }
+        }
+
+        List<String> boundaries = new ArrayList<>();
+        if (sample.size() < partitions) return boundaries;
+        for (int i = 1; i < partitions; i++) {
+            String boundary = sample.get(i * sample.size() / partitions);
+            if (boundaries.isEmpty() || boundary.compareTo(boundaries.get(boundaries.size() - 1)) > 0) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Stream products with fromInclusive <= id < toExclusive (null means unbounded) in id order,
+     * inside a transaction that adopts the given exported snapshot.
+     */
+    public long scanProductRange(ProductSnapshot snapshot, String fromInclusive, String toExclusive,
+                                 int fetchSize, Consumer<? super ProductSummary> visitor) throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE TRUE " +
+                    (fromInclusive != null ? "AND p.id >= ? " : "") +
+                    (toExclusive != null ? "AND p.id < ? " : "") +
+                    "ORDER BY p.id";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            try {
+                // Must be the first statement of the transaction; it cannot take a bind parameter
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET TRANSACTION SNAPSHOT '" + snapshot.getSnapshotId() + "'");
+                }
+                long count;
+                try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    int index = 1;
+                    if (fromInclusive != null) stmt.setString(index++, fromInclusive);
+                    if (toExclusive != null) stmt.setString(index, toExclusive);
+                    stmt.setFetchSize(fetchSize);
+                    count = visitSummaries(stmt, visitor);
+                }
+                conn.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long visitRows(PreparedStatement stmt, Consumer<? super Product> visitor) throws SQLException {
+        long count = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                visitor.accept(mapper.mapProduct(rs));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long visitSummaries(PreparedStatement stmt, Consumer<? super ProductSummary> visitor) throws SQLException {
+        long count = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                visitor.accept(mapper.mapSummary(rs));
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Search products with pagination
      */
@@ -156,9 +457,9 @@ public class ProductDAO {
         List<Product> products = new ArrayList<>();
         int offset = (page - 1) * pageSize;
         
-        String sql = "SELECT p.*, c.name as category_name FROM products p " +
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
                     "LEFT JOIN categories c ON p.category_id = c.id " +
-                    "WHERE LOWER(p.name) LIKE ? OR LOWER(c.name) LIKE ? " +
+                    "WHERE " + CONTAINS_PREDICATE + " " +
                     "ORDER BY p.id " +
                     "LIMIT ? OFFSET ?";
                     
@@ -166,12 +467,59 @@ public class ProductDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             String searchPattern = "%" + keyword.toLowerCase() + "%";
             stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
+            stmt.setArray(2, matchingCategoryIds(conn, SearchMode.CONTAINS, searchPattern));
             stmt.setInt(3, pageSize);
             stmt.setInt(4, offset);
             ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                products.add(mapper.mapProduct(rs));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Relevance-ranked search. CONTAINS keeps the substring semantics ordered by id;
+     * TRIGRAM ranks by word similarity and FULL_TEXT by ts_rank, both served by GIN indexes.
+     * INDEXED has no SQL form and searches as CONTAINS.
+     */
+    public List<Product> searchProductsRanked(String keyword, SearchMode mode, int page, int pageSize) throws SQLException {
+        if (mode == SearchMode.CONTAINS || mode == SearchMode.INDEXED) {
+            return searchProductsWithPagination(keyword, page, pageSize);
+        }
+        List<Product> products = new ArrayList<>();
+        int offset = (page - 1) * pageSize;
+        String term = keyword.toLowerCase();
+
+        String sql;
+        if (mode == SearchMode.TRIGRAM) {
+            sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE " + TRIGRAM_PREDICATE + " " +
+                    "ORDER BY GREATEST(word_similarity(?, LOWER(p.name)), word_similarity(?, LOWER(c.name))) DESC, p.id " +
+                    "LIMIT ? OFFSET ?";
+        } else {
+            sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE " + FULL_TEXT_PREDICATE + " " +
+                    "ORDER BY GREATEST(ts_rank(to_tsvector('simple', p.name), plainto_tsquery('simple', ?)), " +
+                    "ts_rank(to_tsvector('simple', c.name), plainto_tsquery('simple', ?))) DESC, p.id " +
+                    "LIMIT ? OFFSET ?";
+        }
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, term);
+            stmt.setArray(2, matchingCategoryIds(conn, mode, term));
+            stmt.setString(3, term);
+            stmt.setString(4, term);
+            stmt.setInt(5, pageSize);
+            stmt.setInt(6, offset);
+            ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
             while (rs.next()) {
-                products.add(mapResultSetToProductWithCategory(rs));
+                products.add(mapper.mapProduct(rs));
             }
         }
         return products;
@@ -184,7 +532,7 @@ public class ProductDAO {
         List<Product> products = new ArrayList<>();
         int offset = (page - 1) * pageSize;
         
-        String sql = "SELECT p.*, c.name as category_name FROM products p " +
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
                     "LEFT JOIN categories c ON p.category_id = c.id " +
                     "WHERE p.category_id = ? " +
                     "ORDER BY p.id " +
@@ -196,8 +544,9 @@ public class ProductDAO {
             stmt.setInt(2, pageSize);
             stmt.setInt(3, offset);
             ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
             while (rs.next()) {
-                products.add(mapResultSetToProductWithCategory(rs));
+                products.add(mapper.mapProduct(rs));
             }
         }
         return products;
@@ -210,7 +559,7 @@ public class ProductDAO {
         List<Product> products = new ArrayList<>();
         int offset = (page - 1) * pageSize;
         
-        String sql = "SELECT p.*, c.name as category_name FROM products p " +
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
                     "LEFT JOIN categories c ON p.category_id = c.id " +
                     "WHERE p.price BETWEEN ? AND ? " +
                     "ORDER BY p.price " +
@@ -218,18 +567,264 @@ public class ProductDAO {
                     
         try (Connection conn = DatabaseConfig.getConnection(); 
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setDouble(1, minPrice);
-            stmt.setDouble(2, maxPrice);
+            // Bound as numeric so the BETWEEN can seek idx_products_price_id instead of comparing price::float8
+            stmt.setBigDecimal(1, BigDecimal.valueOf(minPrice));
+            stmt.setBigDecimal(2, BigDecimal.valueOf(maxPrice));
             stmt.setInt(3, pageSize);
             stmt.setInt(4, offset);
             ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
             while (rs.next()) {
-                products.add(mapResultSetToProductWithCategory(rs));
+                products.add(mapper.mapProduct(rs));
             }
         }
         return products;
     }
 
+    /**
+     * Keyset pagination: products ordered by id, starting after the given id (null for the first page)
+     */
+    public List<Product> findProductsAfter(String afterId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    (afterId != null ? "WHERE p.id > ? " : "") +
+                    "ORDER BY p.id " +
+                    "LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (afterId != null) stmt.setString(index++, afterId);
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                products.add(mapper.mapProduct(rs));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Keyset pagination over name/category search results, ordered by id
+     */
+    public List<Product> searchProductsAfter(String keyword, String afterId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE " + CONTAINS_PREDICATE + " " +
+                    (afterId != null ? "AND p.id > ? " : "") +
+                    "ORDER BY p.id " +
+                    "LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            String searchPattern = "%" + keyword.toLowerCase() + "%";
+            stmt.setString(1, searchPattern);
+            stmt.setArray(2, matchingCategoryIds(conn, SearchMode.CONTAINS, searchPattern));
+            int index = 3;
+            if (afterId != null) stmt.setString(index++, afterId);
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                products.add(mapper.mapProduct(rs));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Keyset pagination within a category, ordered by id
+     */
+    public List<Product> findProductsByCategoryAfter(String categoryId, String afterId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE p.category_id = ? " +
+                    (afterId != null ? "AND p.id > ? " : "") +
+                    "ORDER BY p.id " +
+                    "LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, categoryId);
+            int index = 2;
+            if (afterId != null) stmt.setString(index++, afterId);
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                products.add(mapper.mapProduct(rs));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Keyset pagination within a price range, ordered by (price, id).
+     * Pass a null afterPrice for the first page.
+     */
+    public List<Product> findProductsByPriceRangeAfter(double minPrice, double maxPrice, BigDecimal afterPrice, String afterId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.id " +
+                    "WHERE p.price BETWEEN ? AND ? " +
+                    (afterPrice != null ? "AND (p.price, p.id) > (?, ?) " : "") +
+                    "ORDER BY p.price, p.id " +
+                    "LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            // Bound as numeric so the BETWEEN can seek idx_products_price_id instead of comparing price::float8
+            stmt.setBigDecimal(1, BigDecimal.valueOf(minPrice));
+            stmt.setBigDecimal(2, BigDecimal.valueOf(maxPrice));
+            int index = 3;
+            if (afterPrice != null) {
+                stmt.setBigDecimal(index++, afterPrice);
+                stmt.setString(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            ProductRowMapper mapper = ProductRowMapper.of(rs);
+            while (rs.next()) {
+                products.add(mapper.mapProduct(rs));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Keyset pagination over products matching a combined filter, ordered by id.
+     * Price bounds are bound as numeric so category + price and category + stock filters can use
+     * idx_products_category_price and idx_products_category_stock.
+     */
+    public List<Product> findProductsFilteredAfter(ProductFilter filter, String afterId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            String sql = "SELECT " + LIST_COLUMNS + " FROM products p " +
+                        "LEFT JOIN categories c ON p.category_id = c.id " +
+                        "WHERE " + filterPredicate(conn, filter, params) + " " +
+                        (afterId != null ? "AND p.id > ? " : "") +
+                        "ORDER BY p.id " +
+                        "LIMIT ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = bindFilterParams(stmt, 1, params);
+                if (afterId != null) stmt.setString(index++, afterId);
+                stmt.setInt(index, limit);
+                ResultSet rs = stmt.executeQuery();
+                ProductRowMapper mapper = ProductRowMapper.of(rs);
+                while (rs.next()) {
+                    products.add(mapper.mapProduct(rs));
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Count products matching a filter per category, per price bucket and in total, in one pass
+     * over the matches using GROUPING SETS. Bucket numbers follow width_bucket over the given bounds.
+     */
+    public ProductFacets countFacets(ProductFilter filter, double[] priceBucketBounds) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        long total = 0;
+        List<FacetCount> categories = new ArrayList<>();
+        long[] buckets = new long[priceBucketBounds.length + 1];
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            String sql = "SELECT f.category_id, MAX(f.category_name) AS category_name, f.price_bucket, " +
+                        "GROUPING(f.category_id) AS all_categories, GROUPING(f.price_bucket) AS all_buckets, COUNT(*) AS matches " +
+                        "FROM (SELECT p.category_id, c.name AS category_name, width_bucket(p.price, ?::numeric[]) AS price_bucket " +
+                        "FROM products p LEFT JOIN categories c ON p.category_id = c.id " +
+                        "WHERE " + filterPredicate(conn, filter, params) + ") f " +
+                        "GROUP BY GROUPING SETS ((f.category_id), (f.price_bucket), ()) " +
+                        "ORDER BY matches DESC";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                BigDecimal[] bounds = new BigDecimal[priceBucketBounds.length];
+                for (int i = 0; i < bounds.length; i++) bounds[i] = BigDecimal.valueOf(priceBucketBounds[i]);
+                stmt.setArray(1, conn.createArrayOf("numeric", bounds));
+                bindFilterParams(stmt, 2, params);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    long matches = rs.getLong("matches");
+                    boolean allCategories = rs.getInt("all_categories") == 1;
+                    boolean allBuckets = rs.getInt("all_buckets") == 1;
+                    if (allCategories && allBuckets) {
+                        total = matches;
+                    } else if (allBuckets) {
+                        categories.add(new FacetCount(rs.getString("category_id"), rs.getString("category_name"), matches));
+                    } else {
+                        buckets[rs.getInt("price_bucket")] += matches;
+                    }
+                }
+            }
+        }
+        return new ProductFacets(total, categories, ProductFacets.priceBuckets(priceBucketBounds, buckets));
+    }
+
+    /**
+     * Ids of the categories whose name matches the search term, for the category half of the
+     * search predicates. CONTAINS expects the LIKE pattern, the other modes the lower-cased keyword.
+     */
+    private static Array matchingCategoryIds(Connection conn, SearchMode mode, String term) throws SQLException {
+        String sql;
+        if (mode == SearchMode.CONTAINS) {
+            sql = "SELECT id FROM categories WHERE LOWER(name) LIKE ?";
+        } else if (mode == SearchMode.TRIGRAM) {
+            sql = "SELECT id FROM categories WHERE ? <% LOWER(name)";
+        } else {
+            sql = "SELECT id FROM categories WHERE to_tsvector('simple', name) @@ plainto_tsquery('simple', ?)";
+        }
+        List<String> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, term);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) ids.add(rs.getString(1));
+            }
+        }
+        return conn.createArrayOf("varchar", ids.toArray());
+    }
+
+    // WHERE conditions for a filter, appending their bind values in order; "TRUE" when nothing is set
+    private static String filterPredicate(Connection conn, ProductFilter filter, List<Object> params) throws SQLException {
+        StringBuilder predicate = new StringBuilder("TRUE");
+        if (filter.getCategoryId() != null) {
+            predicate.append(" AND p.category_id = ?");
+            params.add(filter.getCategoryId());
+        }
+        if (filter.getMinPrice() != null) {
+            predicate.append(" AND p.price >= ?");
+            params.add(BigDecimal.valueOf(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicate.append(" AND p.price <= ?");
+            params.add(BigDecimal.valueOf(filter.getMaxPrice()));
+        }
+        if (filter.getMinStock() != null) {
+            predicate.append(" AND p.stock_quantity >= ?");
+            params.add(filter.getMinStock());
+        }
+        if (filter.getKeyword() != null) {
+            String searchPattern = "%" + filter.getKeyword().toLowerCase() + "%";
+            predicate.append(" AND ").append(CONTAINS_PREDICATE);
+            params.add(searchPattern);
+            params.add(matchingCategoryIds(conn, SearchMode.CONTAINS, searchPattern));
+        }
+        return predicate.toString();
+    }
+
+    private static int bindFilterParams(PreparedStatement stmt, int index, List<Object> params) throws SQLException {
+        for (Object param : params) {
+            if (param instanceof BigDecimal) stmt.setBigDecimal(index++, (BigDecimal) param);
+            else if (param instanceof Integer) stmt.setInt(index++, (Integer) param);
+            else if (param instanceof Array) stmt.setArray(index++, (Array) param);
+            else stmt.setString(index++, (String) param);
+        }
+        return index;
+    }
+
     /**
      * Bulk update stock quantities
      */
@@ -276,18 +871,4 @@ public class ProductDAO {
             stmt.executeUpdate(sql);
         }
     }
-
-    private Product mapResultSetToProductWithCategory(ResultSet rs) throws SQLException {
-        Product product = new Product();
-        product.setProductId(rs.getString("id"));
-        product.setProductCode(rs.getString("id"));
-        product.setProductName(rs.getString("name"));
-        product.setDescription(rs.getString("description"));
-        product.setCategoryId(rs.getString("category_id"));
-        product.setCategoryName(rs.getString("category_name"));
-        product.setPrice(rs.getDouble("price"));
-        product.setStockQuantity(rs.getInt("stock_quantity"));
-        product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        return product;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.eshope_console.dao;
+
+import com.eshope_console.model.Product;
+import com.eshope_console.model.ProductSummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps product rows by column position. Positions are looked up once per ResultSet in of(rs);
+ * columns the query did not select (description, created_at) are simply left unset.
+ * Category ids and names are canonicalized, so every row of a category shares one instance
+ * of each, and the name column is only read for the first row of each category.
+ */
+final class ProductRowMapper {
+    // Category names rarely number more than a few hundred; past this they are no longer shared
+    private static final int MAX_CANONICAL_STRINGS = 4096;
+    private static final Map<String, String> CANONICAL = new ConcurrentHashMap<>();
+
+    private final int id;
+    private final int name;
+    private final int description;
+    private final int categoryId;
+    private final int categoryName;
+    private final int price;
+    private final int stockQuantity;
+    private final int createdAt;
+    // Category id to name as seen in this result set; per mapper so renames are picked up by the next query
+    private final Map<String, String> categoryNames = new HashMap<>();
+
+    private ProductRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.name = rs.findColumn("name");
+        this.description = optionalColumn(rs, "description");
+        this.categoryId = rs.findColumn("category_id");
+        this.categoryName = optionalColumn(rs, "category_name");
+        this.price = rs.findColumn("price");
+        this.stockQuantity = rs.findColumn("stock_quantity");
+        this.createdAt = optionalColumn(rs, "created_at");
+    }
+
+    static ProductRowMapper of(ResultSet rs) throws SQLException {
+        return new ProductRowMapper(rs);
+    }
+
+    Product mapProduct(ResultSet rs) throws SQLException {
+        Product product = new Product();
+        String productId = rs.getString(id);
+        product.setProductId(productId);
+        product.setProductCode(productId);
+        product.setProductName(rs.getString(name));
+        if (description > 0) product.setDescription(rs.getString(description));
+        String category = canonical(rs.getString(categoryId));
+        product.setCategoryId(category);
+        product.setCategoryName(categoryName(rs, category));
+        product.setPrice(rs.getDouble(price));
+        product.setStockQuantity(rs.getInt(stockQuantity));
+        if (createdAt > 0) product.setCreatedAt(rs.getObject(createdAt, LocalDateTime.class));
+        return product;
+    }
+
+    ProductSummary mapSummary(ResultSet rs) throws SQLException {
+        String category = canonical(rs.getString(categoryId));
+        return new ProductSummary(rs.getString(id), rs.getString(name), category, categoryName(rs, category),
+                Math.round(rs.getDouble(price) * 100), rs.getInt(stockQuantity));
+    }
+
+    private String categoryName(ResultSet rs, String category) throws SQLException {
+        if (categoryName < 1) return null;
+        if (category == null) return canonical(rs.getString(categoryName));
+        String known = categoryNames.get(category);
+        if (known != null) return known;
+        String read = canonical(rs.getString(categoryName));
+        if (read != null) categoryNames.put(category, read);
+        return read;
+    }
+
+    private static String canonical(String value) {
+        if (value == null) return null;
+        String shared = CANONICAL.get(value);
+        if (shared != null) return shared;
+        if (CANONICAL.size() >= MAX_CANONICAL_STRINGS) return value;
+        shared = CANONICAL.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    // findColumn is 1-based; 0 marks a column the query did not select
+    private static int optionalColumn(ResultSet rs, String label) {
+        try {
+            return rs.findColumn(label);
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+}
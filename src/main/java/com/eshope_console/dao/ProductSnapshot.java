@@ -0,0 +1,55 @@
+package com.eshope_console.dao;
+
+import com.eshope_console.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An exported PostgreSQL snapshot (pg_export_snapshot).
+ * The exporting transaction is held open until close(), so other sessions can
+ * adopt the snapshot with SET TRANSACTION SNAPSHOT and all read the same data.
+ */
+public class ProductSnapshot implements AutoCloseable {
+    private final Connection conn;
+    private final String snapshotId;
+
+    private ProductSnapshot(Connection conn, String snapshotId) {
+        this.conn = conn;
+        this.snapshotId = snapshotId;
+    }
+
+    static ProductSnapshot export() throws SQLException {
+        Connection conn = DatabaseConfig.getConnection();
+        try {
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT pg_export_snapshot()")) {
+                rs.next();
+                String snapshotId = rs.getString(1);
+                if (!snapshotId.matches("[0-9A-Fa-f-]+")) {
+                    throw new SQLException("Unexpected snapshot identifier: " + snapshotId);
+                }
+                return new ProductSnapshot(conn, snapshotId);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    public String getSnapshotId() {
+        return snapshotId;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            conn.rollback();
+        } finally {
+            conn.close();
+        }
+    }
+}
@@ -11,7 +11,7 @@ public class UserDAO {
     public User createUser(User user) throws SQLException {
         String sql = "INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?) RETURNING id";
         try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, generateUserId());
+            stmt.setString(1, IdAllocator.USERS.nextId(conn));
             stmt.setString(2, user.getUsername());
             stmt.setString(3, user.getEmail());
             stmt.setString(4, user.getPasswordHash());
@@ -33,20 +33,6 @@ public class UserDAO {
         return null;
     }
 
-    private String generateUserId() throws SQLException {
-        String sql = "SELECT id FROM users ORDER BY id DESC LIMIT 1";
-        try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                String lastId = rs.getString("id");
-                int nextNum = Integer.parseInt(lastId.substring(3)) + 1;
-                return String.format("USR%03d", nextNum);
-            } else {
-                return "USR001";
-            }
-        }
-    }
-
     public User findById(String userId) throws SQLException {
         String sql = "SELECT * FROM users WHERE id = ?";
         try (Connection conn = DatabaseConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -0,0 +1,70 @@
+package com.eshope_console.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Operations the latency benchmark can drive, one call per measured operation.
+ */
+public enum BenchmarkWorkload {
+    FIND_BY_CODE("findByCode", "Product lookup by code", false),
+    SEARCH("search", "Keyword search, first page", false),
+    OFFSET_PAGE("offsetPage", "LIMIT/OFFSET page of all products", false),
+    KEYSET_PAGE("keysetPage", "Keyset page of all products", false),
+    SEARCH_PAGE("searchPage", "Keyset page of search results", false),
+    CATEGORY_PAGE("categoryPage", "Keyset page within a category", false),
+    PRICE_RANGE_PAGE("priceRangePage", "Keyset page within a price range", false),
+    CHECKOUT("checkout", "Place a one-item order (writes orders, decrements stock)", true);
+
+    private final String cliName;
+    private final String description;
+    private final boolean writes;
+
+    BenchmarkWorkload(String cliName, String description, boolean writes) {
+        this.cliName = cliName;
+        this.description = description;
+        this.writes = writes;
+    }
+
+    public String getCliName() {
+        return cliName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /** True if running it changes data */
+    public boolean isWrites() {
+        return writes;
+    }
+
+    public static BenchmarkWorkload fromCliName(String name) {
+        for (BenchmarkWorkload workload : values()) {
+            if (workload.cliName.equalsIgnoreCase(name.trim()) || workload.name().equalsIgnoreCase(name.trim())) {
+                return workload;
+            }
+        }
+        throw new IllegalArgumentException("Unknown workload: " + name);
+    }
+
+    /**
+     * Parse a comma-separated list of workload names; "reads" selects every read-only workload and "all" every workload
+     */
+    public static List<BenchmarkWorkload> parseList(String value) {
+        if (value.trim().equalsIgnoreCase("all")) return Arrays.asList(values());
+        if (value.trim().equalsIgnoreCase("reads")) {
+            List<BenchmarkWorkload> reads = new ArrayList<>();
+            for (BenchmarkWorkload workload : values()) {
+                if (!workload.writes) reads.add(workload);
+            }
+            return reads;
+        }
+        List<BenchmarkWorkload> workloads = new ArrayList<>();
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) workloads.add(fromCliName(name));
+        }
+        return workloads;
+    }
+}
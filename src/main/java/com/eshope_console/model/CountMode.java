@@ -0,0 +1,11 @@
+package com.eshope_console.model;
+
+/**
+ * How product totals are counted.
+ */
+public enum CountMode {
+    /** In-process counter, seeded with one COUNT(*) and kept up to date by this application's writes */
+    EXACT,
+    /** Planner estimate from pg_class statistics; no table scan, may lag recent writes */
+    APPROXIMATE
+}
@@ -0,0 +1,35 @@
+package com.eshope_console.model;
+
+/**
+ * How bulk operations run their concurrent tasks.
+ */
+public enum ExecutionMode {
+    VIRTUAL("virtual", "One virtual thread per task (Java 21+)"),
+    PLATFORM("platform", "Fixed-size pool of platform threads"),
+    FORK_JOIN("forkjoin", "Work-stealing ForkJoinPool");
+
+    private final String cliName;
+    private final String description;
+
+    ExecutionMode(String cliName, String description) {
+        this.cliName = cliName;
+        this.description = description;
+    }
+
+    public String getCliName() {
+        return cliName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static ExecutionMode fromCliName(String name) {
+        for (ExecutionMode mode : values()) {
+            if (mode.cliName.equalsIgnoreCase(name.trim()) || mode.name().equalsIgnoreCase(name.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown execution mode: " + name);
+    }
+}
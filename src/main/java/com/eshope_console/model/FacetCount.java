@@ -0,0 +1,28 @@
+package com.eshope_console.model;
+
+/**
+ * Number of matching products sharing one facet value, e.g. a category or a price bucket
+ */
+public class FacetCount {
+    private final String value;
+    private final String label;
+    private final long count;
+
+    public FacetCount(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
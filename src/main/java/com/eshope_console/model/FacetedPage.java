@@ -0,0 +1,20 @@
+package com.eshope_console.model;
+
+import java.util.List;
+
+/**
+ * A keyset page of filtered results together with facet counts over all matches.
+ * Facets are computed with the first page only and are null on later pages.
+ */
+public class FacetedPage<T> extends KeysetPage<T> {
+    private final ProductFacets facets;
+
+    public FacetedPage(List<T> items, String nextPageToken, ProductFacets facets) {
+        super(items, nextPageToken);
+        this.facets = facets;
+    }
+
+    public ProductFacets getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,29 @@
+package com.eshope_console.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated query.
+ * The next-page token is opaque to callers and null on the last page.
+ */
+public class KeysetPage<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public KeysetPage(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
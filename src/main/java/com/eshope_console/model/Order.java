@@ -12,6 +12,8 @@ public class Order {
     private LocalDateTime orderDate;
     private double totalPrice;
     private List<OrderItem> orderItems = new ArrayList<>();
+    // Total quantity when loaded as a summary without items; -1 means count the items
+    private int itemCount = -1;
 
     public String getOrderId() {
         return orderId;
@@ -61,7 +63,12 @@ public class Order {
         this.orderItems = orderItems;
     }
 
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
     public int getTotalItems() {
+        if (itemCount >= 0) return itemCount;
         return orderItems.stream().mapToInt(OrderItem::getQuantity).sum();
     }
 }
\ No newline at end of file
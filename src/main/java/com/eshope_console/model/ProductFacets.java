@@ -0,0 +1,53 @@
+package com.eshope_console.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Facet counts over every product matching a filter: the total, per category and per price bucket.
+ * Price bucket i covers [bounds[i - 1], bounds[i]), with bucket 0 below the first bound and the
+ * last bucket at or above the last one.
+ */
+public class ProductFacets {
+    private final long totalCount;
+    private final List<FacetCount> categoryCounts;
+    private final List<FacetCount> priceBucketCounts;
+
+    public ProductFacets(long totalCount, List<FacetCount> categoryCounts, List<FacetCount> priceBucketCounts) {
+        this.totalCount = totalCount;
+        this.categoryCounts = categoryCounts;
+        this.priceBucketCounts = priceBucketCounts;
+    }
+
+    /**
+     * Label each price bucket count, skipping empty buckets
+     */
+    public static List<FacetCount> priceBuckets(double[] bounds, long[] counts) {
+        List<FacetCount> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] == 0) continue;
+            String label;
+            if (bucket == 0) {
+                label = String.format("Under $%,.0f", bounds[0]);
+            } else if (bucket == bounds.length) {
+                label = String.format("$%,.0f and up", bounds[bounds.length - 1]);
+            } else {
+                label = String.format("$%,.0f - $%,.0f", bounds[bucket - 1], bounds[bucket]);
+            }
+            buckets.add(new FacetCount(Integer.toString(bucket), label, counts[bucket]));
+        }
+        return buckets;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public List<FacetCount> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public List<FacetCount> getPriceBucketCounts() {
+        return priceBucketCounts;
+    }
+}
@@ -0,0 +1,77 @@
+package com.eshope_console.model;
+
+/**
+ * Compact, immutable view of a product row for bulk reads: no description or timestamps,
+ * price held as cents, and category id and name shared between all rows of a category.
+ */
+public final class ProductSummary {
+    private final String productId;
+    private final String productName;
+    private final String categoryId;
+    private final String categoryName;
+    private final long priceCents;
+    private final int stockQuantity;
+
+    public ProductSummary(String productId, String productName, String categoryId, String categoryName,
+                          long priceCents, int stockQuantity) {
+        this.productId = productId;
+        this.productName = productName;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.priceCents = priceCents;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    /** Same as the id; products are addressed by it in the console */
+    public String getProductCode() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public double getPrice() {
+        return priceCents / 100.0;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    /**
+     * A mutable Product with the same fields; description and creation time are left unset
+     */
+    public Product toProduct() {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductCode(productId);
+        product.setProductName(productName);
+        product.setCategoryId(categoryId);
+        product.setCategoryName(categoryName);
+        product.setPrice(getPrice());
+        product.setStockQuantity(stockQuantity);
+        return product;
+    }
+
+    @Override
+    public String toString() {
+        return productId + ": " + productName;
+    }
+}
@@ -0,0 +1,18 @@
+package com.eshope_console.model;
+
+/**
+ * How product searches match keywords.
+ */
+public enum SearchMode {
+    /** Case-insensitive substring match on product or category name, ordered by id */
+    CONTAINS,
+    /** pg_trgm word similarity, most similar first; tolerates typos */
+    TRIGRAM,
+    /** Full-text match on whole words, ranked by ts_rank */
+    FULL_TEXT,
+    /**
+     * Token and prefix match in the in-memory search index (-Deshop.searchIndex), in index load order;
+     * a CONTAINS search until the index is ready
+     */
+    INDEXED
+}
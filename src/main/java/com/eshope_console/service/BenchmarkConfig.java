@@ -0,0 +1,118 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.BenchmarkWorkload;
+import com.eshope_console.model.ExecutionMode;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a latency benchmark run executes. Each workload runs once per concurrency level:
+ * warm-up first (not recorded), then either a fixed number of operations shared by all
+ * threads or a fixed duration.
+ */
+public class BenchmarkConfig {
+    private List<BenchmarkWorkload> workloads = new ArrayList<>();
+    private int[] concurrencyLevels = {1, 4, 16};
+    private int warmupSeconds = 3;
+    private int durationSeconds = 10;
+    private long iterations = 0;
+    private int pageSize = 50;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private String checkoutUserId;
+    private Path resultsFile;
+    private Path baselineFile;
+
+    public List<BenchmarkWorkload> getWorkloads() {
+        return workloads;
+    }
+
+    public void setWorkloads(List<BenchmarkWorkload> workloads) {
+        this.workloads = workloads;
+    }
+
+    public int[] getConcurrencyLevels() {
+        return concurrencyLevels;
+    }
+
+    public void setConcurrencyLevels(int[] concurrencyLevels) {
+        this.concurrencyLevels = concurrencyLevels;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Operations to measure per workload and level; when positive it replaces the duration
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(long iterations) {
+        this.iterations = iterations;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * What the benchmark threads are; each concurrency level gets that many tasks whatever the mode
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * User the checkout workload places orders for; required when it is selected
+     */
+    public String getCheckoutUserId() {
+        return checkoutUserId;
+    }
+
+    public void setCheckoutUserId(String checkoutUserId) {
+        this.checkoutUserId = checkoutUserId;
+    }
+
+    public Path getResultsFile() {
+        return resultsFile;
+    }
+
+    public void setResultsFile(Path resultsFile) {
+        this.resultsFile = resultsFile;
+    }
+
+    /**
+     * Earlier results file to compare against, or null
+     */
+    public Path getBaselineFile() {
+        return baselineFile;
+    }
+
+    public void setBaselineFile(Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
+}
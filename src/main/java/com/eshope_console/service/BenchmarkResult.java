@@ -0,0 +1,83 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.BenchmarkWorkload;
+import com.eshope_console.util.LatencyHistogram;
+
+/**
+ * Latency summary of one workload at one concurrency level. Latencies are in microseconds.
+ */
+public class BenchmarkResult {
+    private final BenchmarkWorkload workload;
+    private final int concurrency;
+    private final long operations;
+    private final long errors;
+    private final double throughput;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    public BenchmarkResult(BenchmarkWorkload workload, int concurrency, long operations, long errors, double throughput,
+                           double meanMicros, double p50Micros, double p99Micros, double p999Micros, double maxMicros) {
+        this.workload = workload;
+        this.concurrency = concurrency;
+        this.operations = operations;
+        this.errors = errors;
+        this.throughput = throughput;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    static BenchmarkResult of(BenchmarkWorkload workload, int concurrency, LatencyHistogram histogram, long errors, long elapsedNanos) {
+        double seconds = Math.max(1, elapsedNanos) / 1e9;
+        return new BenchmarkResult(workload, concurrency, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / seconds, histogram.getMean() / 1000.0,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    public BenchmarkWorkload getWorkload() {
+        return workload;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /** Successful operations per second across all threads */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+}
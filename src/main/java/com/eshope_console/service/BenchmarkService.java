@@ -0,0 +1,339 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.BenchmarkWorkload;
+import com.eshope_console.model.KeysetPage;
+import com.eshope_console.model.Product;
+import com.eshope_console.util.LatencyHistogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Latency benchmark runner for service operations.
+ * Every workload runs at each concurrency level with one histogram per thread; only operations
+ * started after the warm-up are recorded, and failed operations are counted but not timed.
+ * Results can be written as TSV and compared with an earlier file used as a baseline.
+ */
+public class BenchmarkService {
+    private static final String[] SEARCH_TERMS = {"Smartphone", "Laptop", "Camera", "Watch", "Monitor"};
+    private static final int SAMPLE_CODES = 200;
+    private static final int MAX_OFFSET_PAGE = 100;
+    // Keyset workloads follow next-page tokens this far before starting again from the first page
+    private static final int MAX_PAGES_PER_WALK = 20;
+    private static final String RESULTS_HEADER =
+            "workload\tconcurrency\toperations\terrors\tthroughput_ops_s\tmean_us\tp50_us\tp99_us\tp999_us\tmax_us";
+
+    private final ProductService productService;
+    private final OrderService orderService;
+
+    public BenchmarkService(ProductService productService, OrderService orderService) {
+        this.productService = productService;
+        this.orderService = orderService;
+    }
+
+    /**
+     * Run every configured workload at every concurrency level, reporting progress line by line.
+     * Results are written to the configured results file, if any.
+     */
+    public List<BenchmarkResult> run(BenchmarkConfig config, Consumer<String> progress) throws Exception {
+        if (config.getWorkloads().isEmpty()) {
+            throw new IllegalArgumentException("No workloads selected");
+        }
+        if (config.getWorkloads().contains(BenchmarkWorkload.CHECKOUT) && config.getCheckoutUserId() == null) {
+            throw new IllegalArgumentException("The checkout workload needs a user to place orders for");
+        }
+        Inputs inputs = loadInputs();
+        progress.accept("Sampled " + inputs.codes.size() + " product codes and " + inputs.categoryIds.size() + " categories");
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (BenchmarkWorkload workload : config.getWorkloads()) {
+            for (int concurrency : config.getConcurrencyLevels()) {
+                progress.accept("Running " + workload.getCliName() + " with " + concurrency + " "
+                        + config.getExecutionMode().getCliName() + " thread(s)...");
+                BenchmarkResult result = runLevel(workload, Math.max(1, concurrency), config, inputs, progress);
+                progress.accept(String.format("   %,d ops, %,.0f ops/s, p50 %,.0f µs, p99 %,.0f µs, p99.9 %,.0f µs, %d errors",
+                        result.getOperations(), result.getThroughput(), result.getP50Micros(),
+                        result.getP99Micros(), result.getP999Micros(), result.getErrors()));
+                results.add(result);
+            }
+        }
+        if (config.getResultsFile() != null) {
+            writeResults(results, config.getResultsFile());
+        }
+        return results;
+    }
+
+    private BenchmarkResult runLevel(BenchmarkWorkload workload, int concurrency, BenchmarkConfig config,
+                                     Inputs inputs, Consumer<String> progress) throws Exception {
+        long warmupNanos = Math.max(0, config.getWarmupSeconds()) * 1_000_000_000L;
+        long iterations = config.getIterations();
+        long measureStart = System.nanoTime() + warmupNanos;
+        long measureEnd = iterations > 0 ? Long.MAX_VALUE : measureStart + Math.max(1, config.getDurationSeconds()) * 1_000_000_000L;
+        AtomicLong remaining = new AtomicLong(iterations);
+        AtomicReference<Exception> firstError = new AtomicReference<>();
+
+        ExecutorService workers = ExecutionStrategy.newExecutor(config.getExecutionMode(), concurrency, "benchmark-worker");
+        try {
+            List<Future<Worker>> futures = new ArrayList<>();
+            for (int thread = 0; thread < concurrency; thread++) {
+                Operation operation = newOperation(workload, config, inputs, new Random(31L * thread + workload.ordinal()));
+                futures.add(workers.submit(() -> {
+                    Worker worker = new Worker();
+                    while (System.nanoTime() < measureStart) {
+                        try {
+                            operation.run();
+                        } catch (Exception ignored) {
+                            // Warm-up failures show up again, and are counted, in the measured phase
+                        }
+                    }
+                    while (iterations > 0 ? remaining.getAndDecrement() > 0 : System.nanoTime() < measureEnd) {
+                        long start = System.nanoTime();
+                        try {
+                            operation.run();
+                            worker.histogram.record(System.nanoTime() - start);
+                        } catch (Exception e) {
+                            worker.errors++;
+                            firstError.compareAndSet(null, e);
+                        }
+                    }
+                    worker.finishedAt = System.nanoTime();
+                    return worker;
+                }));
+            }
+
+            LatencyHistogram histogram = new LatencyHistogram();
+            long errors = 0;
+            long finishedAt = measureStart;
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                histogram.add(worker.histogram);
+                errors += worker.errors;
+                finishedAt = Math.max(finishedAt, worker.finishedAt);
+            }
+            if (firstError.get() != null) {
+                progress.accept("   First error: " + firstError.get().getMessage());
+            }
+            return BenchmarkResult.of(workload, concurrency, histogram, errors, finishedAt - measureStart);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Operation newOperation(BenchmarkWorkload workload, BenchmarkConfig config, Inputs inputs, Random random) {
+        int pageSize = config.getPageSize();
+        switch (workload) {
+            case FIND_BY_CODE:
+                return () -> productService.getProductByCode(pick(inputs.codes, random));
+            case SEARCH:
+                return () -> productService.searchProductsWithPagination(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], 1, pageSize);
+            case OFFSET_PAGE:
+                return () -> productService.getProductsWithPagination(1 + random.nextInt(MAX_OFFSET_PAGE), pageSize);
+            case KEYSET_PAGE:
+                return new PageWalk(token -> productService.getProductsPage(token, pageSize));
+            case SEARCH_PAGE: {
+                String term = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+                return new PageWalk(token -> productService.searchProductsPage(term, token, pageSize));
+            }
+            case CATEGORY_PAGE: {
+                String categoryId = pick(inputs.categoryIds, random);
+                return new PageWalk(token -> productService.getProductsByCategoryPage(categoryId, token, pageSize));
+            }
+            case PRICE_RANGE_PAGE: {
+                double minPrice = inputs.minPrice + random.nextDouble() * Math.max(0, inputs.maxPrice - inputs.minPrice);
+                return new PageWalk(token -> productService.getProductsByPriceRangePage(minPrice, minPrice + 10, token, pageSize));
+            }
+            case CHECKOUT: {
+                String userId = config.getCheckoutUserId();
+                return () -> orderService.createOrder(userId, Collections.singletonMap(pick(inputs.codes, random), 1));
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported workload: " + workload);
+        }
+    }
+
+    // Codes spread over the whole id range, plus the categories and price span seen on the first page
+    private Inputs loadInputs() throws Exception {
+        List<Product> firstPage = productService.getProductsPage(null, 1000).getItems();
+        if (firstPage.isEmpty()) {
+            throw new IllegalStateException("No products to benchmark. Please run the bulk insert operation first.");
+        }
+        Inputs inputs = new Inputs();
+        Set<String> categoryIds = new LinkedHashSet<>();
+        inputs.minPrice = Double.MAX_VALUE;
+        inputs.maxPrice = 0;
+        for (Product product : firstPage) {
+            if (product.getCategoryId() != null) categoryIds.add(product.getCategoryId());
+            inputs.minPrice = Math.min(inputs.minPrice, product.getPrice());
+            inputs.maxPrice = Math.max(inputs.maxPrice, product.getPrice());
+        }
+        inputs.categoryIds = new ArrayList<>(categoryIds);
+        List<String> codes = productService.getIdPartitionBoundaries(SAMPLE_CODES);
+        if (codes.size() < SAMPLE_CODES / 2) {
+            codes = new ArrayList<>();
+            for (Product product : firstPage) codes.add(product.getProductCode());
+        }
+        inputs.codes = codes;
+        return inputs;
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Timestamped results file in the benchmark directory (eshop.benchmarkDir, default data/benchmarks)
+     */
+    public static Path defaultResultsFile() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return benchmarkDirectory().resolve("results-" + timestamp + ".tsv");
+    }
+
+    /**
+     * Where the menu keeps the results to compare new runs against
+     */
+    public static Path defaultBaselineFile() {
+        return benchmarkDirectory().resolve("baseline.tsv");
+    }
+
+    private static Path benchmarkDirectory() {
+        return Paths.get(System.getProperty("eshop.benchmarkDir", "data/benchmarks"));
+    }
+
+    /**
+     * Write results as tab-separated values, one line per workload and concurrency level
+     */
+    public static void writeResults(List<BenchmarkResult> results, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# eshop latency benchmark, written " + LocalDateTime.now());
+            writer.newLine();
+            writer.write(RESULTS_HEADER);
+            writer.newLine();
+            for (BenchmarkResult result : results) {
+                writer.write(String.format(Locale.ROOT, "%s\t%d\t%d\t%d\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f",
+                        result.getWorkload().getCliName(), result.getConcurrency(), result.getOperations(), result.getErrors(),
+                        result.getThroughput(), result.getMeanMicros(), result.getP50Micros(), result.getP99Micros(),
+                        result.getP999Micros(), result.getMaxMicros()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Read a file written by writeResults
+     */
+    public static List<BenchmarkResult> readResults(Path file) throws IOException {
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("workload\t")) continue;
+            String[] fields = line.split("\t");
+            if (fields.length < 10) {
+                throw new IOException("Malformed benchmark results line in " + file + ": " + line);
+            }
+            results.add(new BenchmarkResult(BenchmarkWorkload.fromCliName(fields[0]), Integer.parseInt(fields[1]),
+                    Long.parseLong(fields[2]), Long.parseLong(fields[3]), Double.parseDouble(fields[4]),
+                    Double.parseDouble(fields[5]), Double.parseDouble(fields[6]), Double.parseDouble(fields[7]),
+                    Double.parseDouble(fields[8]), Double.parseDouble(fields[9])));
+        }
+        return results;
+    }
+
+    /**
+     * Results as a table; with a baseline, each row also shows the change in throughput and
+     * percentiles against the baseline row for the same workload and concurrency
+     */
+    public static List<String> report(List<BenchmarkResult> results, List<BenchmarkResult> baseline) {
+        Map<String, BenchmarkResult> baselineByKey = new HashMap<>();
+        if (baseline != null) {
+            for (BenchmarkResult result : baseline) baselineByKey.put(key(result), result);
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-16s %4s %10s %7s %12s %10s %10s %10s %10s", "Workload", "Thr", "Ops", "Errors",
+                "Ops/s", "p50 µs", "p99 µs", "p99.9 µs", "max µs"));
+        for (BenchmarkResult result : results) {
+            lines.add(String.format("%-16s %4d %,10d %7d %,12.0f %,10.0f %,10.0f %,10.0f %,10.0f",
+                    result.getWorkload().getCliName(), result.getConcurrency(), result.getOperations(), result.getErrors(),
+                    result.getThroughput(), result.getP50Micros(), result.getP99Micros(), result.getP999Micros(), result.getMaxMicros()));
+            BenchmarkResult before = baselineByKey.get(key(result));
+            if (before != null) {
+                lines.add(String.format("%-16s %4s %10s %7s %12s %10s %10s %10s", "  vs baseline", "", "", "",
+                        change(before.getThroughput(), result.getThroughput()),
+                        change(before.getP50Micros(), result.getP50Micros()),
+                        change(before.getP99Micros(), result.getP99Micros()),
+                        change(before.getP999Micros(), result.getP999Micros())));
+            }
+        }
+        return lines;
+    }
+
+    private static String key(BenchmarkResult result) {
+        return result.getWorkload().name() + '/' + result.getConcurrency();
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) return "n/a";
+        return String.format("%+.1f%%", (after - before) * 100.0 / before);
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private interface PageFetch {
+        KeysetPage<?> fetch(String pageToken) throws Exception;
+    }
+
+    // Follows next-page tokens, so deeper pages are measured too, then starts over
+    private static final class PageWalk implements Operation {
+        private final PageFetch fetch;
+        private String pageToken;
+        private int pages;
+
+        PageWalk(PageFetch fetch) {
+            this.fetch = fetch;
+        }
+
+        @Override
+        public void run() throws Exception {
+            pageToken = fetch.fetch(pageToken).getNextPageToken();
+            if (pageToken == null || ++pages >= MAX_PAGES_PER_WALK) {
+                pageToken = null;
+                pages = 0;
+            }
+        }
+    }
+
+    private static final class Worker {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long errors;
+        long finishedAt;
+    }
+
+    private static final class Inputs {
+        List<String> codes;
+        List<String> categoryIds;
+        double minPrice;
+        double maxPrice;
+    }
+}
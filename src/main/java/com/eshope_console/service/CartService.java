@@ -48,8 +48,9 @@ public class CartService {
 
     public double calculateTotal() throws Exception {
         double total = 0.0;
+        Map<String, Product> products = productService.getProductsByCodes(cartItems.keySet());
         for (Map.Entry<String, Integer> entry : cartItems.entrySet()) {
-            Product product = productService.getProductByCode(entry.getKey());
+            Product product = products.get(entry.getKey());
             if (product != null) {
                 total += product.getPrice() * entry.getValue();
             }
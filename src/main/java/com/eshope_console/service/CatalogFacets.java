@@ -0,0 +1,170 @@
+package com.eshope_console.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Filter evaluation and facet counting over a ProductCatalog's columns.
+ * Counting visits every row once, split into chunks scanned in parallel, each with its own
+ * counters that are summed at the end; a page without counts stops at the first limit matches.
+ */
+final class CatalogFacets {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final ProductCatalog catalog;
+    // Categories known when the filter was built; later ones are left out of the counts
+    private final int categoryCount;
+    private final int categoryOrdinal;
+    private final long minCents;
+    private final long maxCents;
+    private final int minStock;
+    private final boolean[] categoryNameMatches;
+    private final byte[] asciiKeyword;
+    private final String keyword;
+    private final long[] bucketBoundsCents;
+
+    /**
+     * Filter criteria are given as in ProductFilter, with null meaning "not applied"
+     */
+    CatalogFacets(ProductCatalog catalog, String categoryId, Long minCents, Long maxCents, Integer minStock,
+                  String keyword, long[] bucketBoundsCents) {
+        this.catalog = catalog;
+        this.categoryCount = catalog.categoryCount;
+        int category = -1;
+        if (categoryId != null) {
+            // -2 matches nothing: the category has no products in the catalog
+            category = -2;
+            for (int ordinal = 0; ordinal < categoryCount; ordinal++) {
+                if (categoryId.equals(catalog.categoryIds[ordinal])) category = ordinal;
+            }
+        }
+        this.categoryOrdinal = category;
+        this.minCents = minCents == null ? Long.MIN_VALUE : minCents;
+        this.maxCents = maxCents == null ? Long.MAX_VALUE : maxCents;
+        this.minStock = minStock == null ? Integer.MIN_VALUE : minStock;
+        this.keyword = keyword == null ? null : keyword.toLowerCase(Locale.ROOT);
+        this.bucketBoundsCents = bucketBoundsCents;
+
+        if (this.keyword == null) {
+            categoryNameMatches = null;
+            asciiKeyword = null;
+        } else {
+            categoryNameMatches = new boolean[categoryCount];
+            for (int ordinal = 0; ordinal < categoryCount; ordinal++) {
+                String name = catalog.categoryNames[ordinal];
+                categoryNameMatches[ordinal] = name != null && name.toLowerCase(Locale.ROOT).contains(this.keyword);
+            }
+            boolean ascii = this.keyword.chars().allMatch(c -> c < 0x80);
+            asciiKeyword = ascii ? this.keyword.getBytes(StandardCharsets.US_ASCII) : null;
+        }
+    }
+
+    /**
+     * Matches and counts from one pass
+     */
+    static final class Result {
+        final int[] page;
+        final long total;
+        final long[] categoryCounts;
+        final long[] bucketCounts;
+
+        Result(int[] page, long total, long[] categoryCounts, long[] bucketCounts) {
+            this.page = page;
+            this.total = total;
+            this.categoryCounts = categoryCounts;
+            this.bucketCounts = bucketCounts;
+        }
+    }
+
+    /**
+     * The first limit matching ordinals after afterOrdinal, plus counts over all matches
+     */
+    Result pageWithCounts(int afterOrdinal, int limit) {
+        int size = catalog.size();
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Result[] partials = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scan(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE), afterOrdinal, limit, true))
+                .toArray(Result[]::new);
+
+        int[] page = new int[limit];
+        int matched = 0;
+        long total = 0;
+        long[] categoryCounts = new long[categoryCount];
+        long[] bucketCounts = new long[bucketBoundsCents.length + 1];
+        for (Result partial : partials) {
+            for (int i = 0; i < partial.page.length && matched < limit; i++) page[matched++] = partial.page[i];
+            total += partial.total;
+            for (int i = 0; i < categoryCounts.length; i++) categoryCounts[i] += partial.categoryCounts[i];
+            for (int i = 0; i < bucketCounts.length; i++) bucketCounts[i] += partial.bucketCounts[i];
+        }
+        return new Result(Arrays.copyOf(page, matched), total, categoryCounts, bucketCounts);
+    }
+
+    /**
+     * The first limit matching ordinals after afterOrdinal, without counting
+     */
+    int[] page(int afterOrdinal, int limit) {
+        return scan(afterOrdinal + 1, catalog.size(), afterOrdinal, limit, false).page;
+    }
+
+    private Result scan(int from, int to, int afterOrdinal, int limit, boolean count) {
+        int[] page = new int[Math.min(limit, 64)];
+        int matched = 0;
+        long total = 0;
+        long[] categoryCounts = new long[count ? categoryCount : 0];
+        long[] bucketCounts = new long[count ? bucketBoundsCents.length + 1 : 0];
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (!matches(ordinal)) continue;
+            if (ordinal > afterOrdinal && matched < limit) {
+                if (matched == page.length) page = Arrays.copyOf(page, Math.min(limit, page.length * 2));
+                page[matched++] = ordinal;
+            }
+            if (!count) {
+                if (matched == limit) break;
+                continue;
+            }
+            total++;
+            int category = catalog.categories[ordinal] & 0xFF;
+            if (category < categoryCount) categoryCounts[category]++;
+            bucketCounts[bucketOf(catalog.priceCents[ordinal])]++;
+        }
+        return new Result(Arrays.copyOf(page, matched), total, categoryCounts, bucketCounts);
+    }
+
+    // Cheapest columns first; the name is only examined when everything else matches
+    private boolean matches(int ordinal) {
+        int category = catalog.categories[ordinal] & 0xFF;
+        if (categoryOrdinal != -1 && category != categoryOrdinal) return false;
+        long price = catalog.priceCents[ordinal];
+        if (price < minCents || price > maxCents) return false;
+        if (catalog.stock[ordinal] < minStock) return false;
+        if (keyword == null || (category < categoryCount && categoryNameMatches[category])) return true;
+        int start = catalog.nameStarts[ordinal];
+        int length = catalog.nameLengths[ordinal];
+        if (asciiKeyword != null) return asciiContainsIgnoreCase(catalog.nameBytes, start, length, asciiKeyword);
+        return new String(catalog.nameBytes, start, length, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT).contains(keyword);
+    }
+
+    // Bucket numbering matches SQL width_bucket: 0 below the first bound, bounds.length at or above the last
+    private int bucketOf(long priceCents) {
+        int bucket = Arrays.binarySearch(bucketBoundsCents, priceCents);
+        return bucket >= 0 ? bucket + 1 : -bucket - 1;
+    }
+
+    // UTF-8 never encodes other characters with ASCII bytes, so an ASCII needle can be matched byte-wise
+    private static boolean asciiContainsIgnoreCase(byte[] haystack, int start, int length, byte[] lowerNeedle) {
+        int last = start + length - lowerNeedle.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < lowerNeedle.length; j++) {
+                byte b = haystack[i + j];
+                if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+                if (b != lowerNeedle[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+}
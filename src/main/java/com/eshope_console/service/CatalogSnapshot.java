@@ -0,0 +1,317 @@
+package com.eshope_console.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot file of a ProductCatalog.
+ * <pre>
+ * header (64 bytes, little-endian)
+ *   0  magic "ESHOPCAT"         8  int version        12 int row count
+ *   16 long xmin horizon        24 long table filenode 32 long written-at millis
+ *   40 long body length         48 long CRC32C of body 56 int name bytes   60 reserved
+ * body
+ *   dictionaries: code formats, categories, irregular codes (length-prefixed UTF-8 strings)
+ *   fixed-width columns, each 8-byte aligned: price cents, created-at millis (long),
+ *   code numbers, stock, name starts (int), name lengths (short), code formats,
+ *   categories (byte), then the name arena
+ * </pre>
+ * The file is written to a temporary sibling and renamed into place, so a crash mid-write
+ * leaves the previous snapshot intact. Reading maps each column and copies it straight into
+ * the catalog arrays, so the cost is sequential page faults rather than a table scan.
+ */
+public final class CatalogSnapshot {
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = "ESHOPCAT".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 64;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Write the catalog to path. The catalog's monitor, which every writer holds, is held while
+     * the rows are copied, so the file is one consistent prefix of the catalog. Before the file
+     * replaces the previous snapshot it is read back and verified, so a file that would not load
+     * is never installed.
+     */
+    public static void write(ProductCatalog catalog, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            synchronized (catalog) {
+                int rows = catalog.size();
+                int nameBytesUsed = catalog.nameBytesUsed;
+                ByteBuffer dictionaries = encodeDictionaries(catalog);
+                long[] offsets = columnOffsets(HEADER_SIZE + dictionaries.remaining(), rows, nameBytesUsed);
+                CRC32C crc = new CRC32C();
+                crc.update(dictionaries.duplicate());
+                writeFully(channel, dictionaries, HEADER_SIZE);
+
+                MappedByteBuffer column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[0], rows * 8L);
+                column.asLongBuffer().put(catalog.priceCents, 0, rows);
+                crc.update(column);
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[1], rows * 8L);
+                column.asLongBuffer().put(catalog.createdAtMillis, 0, rows);
+                crc.update(column);
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[2], rows * 4L);
+                column.asIntBuffer().put(catalog.codeNumbers, 0, rows);
+                crc.update(column);
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[3], rows * 4L);
+                column.asIntBuffer().put(catalog.stock, 0, rows);
+                crc.update(column);
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[4], rows * 4L);
+                column.asIntBuffer().put(catalog.nameStarts, 0, rows);
+                crc.update(column);
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[5], rows * 2L);
+                column.asShortBuffer().put(catalog.nameLengths, 0, rows);
+                crc.update(column);
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[6], rows);
+                column.put(catalog.codeFormats, 0, rows);
+                crc.update(column.flip());
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[7], rows);
+                column.put(catalog.categories, 0, rows);
+                crc.update(column.flip());
+                column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[8], nameBytesUsed);
+                column.put(catalog.nameBytes, 0, nameBytesUsed);
+                crc.update(column.flip());
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(rows)
+                        .putLong(catalog.getXminHorizon())
+                        .putLong(catalog.getSourceFilenode())
+                        .putLong(System.currentTimeMillis())
+                        .putLong(offsets[9] - HEADER_SIZE)
+                        .putLong(crc.getValue())
+                        .putInt(nameBytesUsed)
+                        .putInt(0);
+                writeFully(channel, header.flip(), 0);
+            }
+            channel.force(true);
+        }
+        verify(temp);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ProductCatalog read(Path path) throws IOException {
+        return read(path, true);
+    }
+
+    /**
+     * Check a snapshot file the way read does (header, layout, checksum, name bounds) without
+     * copying its columns into a catalog
+     */
+    static void verify(Path path) throws IOException {
+        read(path, false);
+    }
+
+    private static ProductCatalog read(Path path, boolean load) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("Catalog snapshot is truncated: " + path);
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a catalog snapshot: " + path);
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported catalog snapshot version " + version + " (expected " + VERSION + ")");
+            }
+            int rows = header.getInt();
+            long xminHorizon = header.getLong();
+            long sourceFilenode = header.getLong();
+            header.getLong(); // written-at, informational
+            long bodyLength = header.getLong();
+            long checksum = header.getLong();
+            int nameBytesUsed = header.getInt();
+            if (rows < 0 || nameBytesUsed < 0) throw new IOException("Catalog snapshot header is corrupt: " + path);
+            if (channel.size() < HEADER_SIZE + bodyLength) throw new IOException("Catalog snapshot is truncated: " + path);
+
+            // Verifying only needs the dictionaries, so it decodes them into a minimal catalog
+            ProductCatalog catalog = load ? new ProductCatalog(rows, nameBytesUsed) : new ProductCatalog(16, 0);
+            CRC32C crc = new CRC32C();
+            // Dictionaries are small; map a bounded window and let decoding find the end
+            ByteBuffer dictionaries = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    Math.min(bodyLength, Integer.MAX_VALUE));
+            int dictionaryLength = decodeDictionaries(dictionaries, catalog);
+            crc.update(dictionaries.position(0).limit(dictionaryLength));
+
+            long[] offsets = columnOffsets(HEADER_SIZE + dictionaryLength, rows, nameBytesUsed);
+            if (offsets[9] - HEADER_SIZE != bodyLength) throw new IOException("Catalog snapshot layout does not match its header");
+
+            ByteBuffer column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[0], rows * 8L);
+            if (load) column.asLongBuffer().get(catalog.priceCents, 0, rows);
+            crc.update(column);
+            column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[1], rows * 8L);
+            if (load) column.asLongBuffer().get(catalog.createdAtMillis, 0, rows);
+            crc.update(column);
+            column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[2], rows * 4L);
+            if (load) column.asIntBuffer().get(catalog.codeNumbers, 0, rows);
+            crc.update(column);
+            column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[3], rows * 4L);
+            if (load) column.asIntBuffer().get(catalog.stock, 0, rows);
+            crc.update(column);
+            ByteBuffer nameStarts = map(channel, FileChannel.MapMode.READ_ONLY, offsets[4], rows * 4L);
+            if (load) nameStarts.asIntBuffer().get(catalog.nameStarts, 0, rows);
+            crc.update(nameStarts.duplicate());
+            ByteBuffer nameLengths = map(channel, FileChannel.MapMode.READ_ONLY, offsets[5], rows * 2L);
+            if (load) nameLengths.asShortBuffer().get(catalog.nameLengths, 0, rows);
+            crc.update(nameLengths.duplicate());
+            column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[6], rows);
+            if (load) column.get(catalog.codeFormats, 0, rows).flip();
+            crc.update(column);
+            column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[7], rows);
+            if (load) column.get(catalog.categories, 0, rows).flip();
+            crc.update(column);
+            column = map(channel, FileChannel.MapMode.READ_ONLY, offsets[8], nameBytesUsed);
+            if (load) column.get(catalog.nameBytes, 0, nameBytesUsed).flip();
+            crc.update(column);
+
+            if (crc.getValue() != checksum) throw new IOException("Catalog snapshot checksum mismatch: " + path);
+            checkNameBounds(nameStarts.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+                    nameLengths.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer(), rows, nameBytesUsed, path);
+            if (!load) return null;
+
+            catalog.nameBytesUsed = nameBytesUsed;
+            catalog.size = rows;
+            catalog.rebuildLookups();
+            catalog.setSource(xminHorizon, sourceFilenode);
+            return catalog;
+        }
+    }
+
+    // A consistent checksum does not prove the writer saw a consistent catalog; every name must lie in the arena
+    private static void checkNameBounds(IntBuffer starts, ShortBuffer lengths, int rows, int nameBytesUsed, Path path)
+            throws IOException {
+        for (int ordinal = 0; ordinal < rows; ordinal++) {
+            int start = starts.get(ordinal);
+            int length = lengths.get(ordinal);
+            if (start < 0 || length < 0 || (long) start + length > nameBytesUsed) {
+                throw new IOException("Catalog snapshot row " + ordinal + " names bytes outside the name arena: " + path);
+            }
+        }
+    }
+
+    /**
+     * Start offsets of the nine columns, followed by the end of the file
+     */
+    private static long[] columnOffsets(long columnsStart, int rows, int nameBytes) {
+        long[] widths = {8, 8, 4, 4, 4, 2, 1, 1};
+        long[] offsets = new long[10];
+        long offset = align(columnsStart);
+        for (int i = 0; i < widths.length; i++) {
+            offsets[i] = offset;
+            offset = align(offset + widths[i] * rows);
+        }
+        offsets[8] = offset;
+        offsets[9] = offset + nameBytes;
+        return offsets;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static ByteBuffer encodeDictionaries(ProductCatalog catalog) {
+        int length = 12;
+        for (int i = 0; i < catalog.formatCount; i++) length += stringLength(catalog.formatPrefixes[i]) + 4;
+        for (int i = 0; i < catalog.categoryCount; i++) {
+            length += stringLength(catalog.categoryIds[i]) + stringLength(catalog.categoryNames[i]);
+        }
+        for (String code : catalog.irregularCodesByOrdinal.values()) length += 4 + stringLength(code);
+
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(catalog.formatCount);
+        for (int i = 0; i < catalog.formatCount; i++) {
+            putString(buffer, catalog.formatPrefixes[i]);
+            buffer.putInt(catalog.formatWidths[i]);
+        }
+        buffer.putInt(catalog.categoryCount);
+        for (int i = 0; i < catalog.categoryCount; i++) {
+            putString(buffer, catalog.categoryIds[i]);
+            putString(buffer, catalog.categoryNames[i]);
+        }
+        buffer.putInt(catalog.irregularCodesByOrdinal.size());
+        for (Map.Entry<Integer, String> entry : catalog.irregularCodesByOrdinal.entrySet()) {
+            buffer.putInt(entry.getKey());
+            putString(buffer, entry.getValue());
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Fill the catalog dictionaries; returns the number of bytes consumed
+     */
+    private static int decodeDictionaries(ByteBuffer buffer, ProductCatalog catalog) throws IOException {
+        try {
+            catalog.formatCount = buffer.getInt();
+            for (int i = 0; i < catalog.formatCount; i++) {
+                catalog.formatPrefixes[i] = getString(buffer);
+                catalog.formatWidths[i] = buffer.getInt();
+            }
+            catalog.categoryCount = buffer.getInt();
+            for (int i = 0; i < catalog.categoryCount; i++) {
+                catalog.categoryIds[i] = getString(buffer);
+                catalog.categoryNames[i] = getString(buffer);
+            }
+            int irregular = buffer.getInt();
+            for (int i = 0; i < irregular; i++) {
+                int ordinal = buffer.getInt();
+                catalog.irregularCodesByOrdinal.put(ordinal, getString(buffer));
+            }
+            return buffer.position();
+        } catch (RuntimeException e) {
+            throw new IOException("Catalog snapshot dictionaries are corrupt", e);
+        }
+    }
+
+    private static int stringLength(String value) {
+        return 4 + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,154 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.ExecutionMode;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bulk-operation tasks on an executor of the selected ExecutionMode.
+ * How many tasks touch the database at once is bounded by a semaphore, not by the thread
+ * count, so modes with unbounded threads (virtual) put the same load on the database as a
+ * pool sized to match. Switching modes retires the old executor once its running tasks finish;
+ * the next task creates a new one, so the strategy can be used again after shutdown().
+ */
+public class ExecutionStrategy {
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private final int platformThreads;
+    private final int dbConcurrency;
+    private final Semaphore dbPermits;
+    private ExecutionMode mode;
+    private ExecutorService executor;
+
+    /**
+     * @param platformThreads threads for the platform pool and parallelism for ForkJoin
+     * @param dbConcurrency   tasks allowed to run database work at the same time
+     */
+    public ExecutionStrategy(ExecutionMode mode, int platformThreads, int dbConcurrency) {
+        this.platformThreads = Math.max(1, platformThreads);
+        this.dbConcurrency = Math.max(1, dbConcurrency);
+        this.dbPermits = new Semaphore(this.dbConcurrency, true);
+        setMode(mode);
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * A new executor of the given mode; threads is the pool size or parallelism and is ignored for virtual threads.
+     * The caller owns it and must shut it down.
+     */
+    public static ExecutorService newExecutor(ExecutionMode mode, int threads, String threadName) {
+        switch (mode) {
+            case VIRTUAL:
+                if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+                    throw new IllegalStateException("Virtual threads need Java 21 or later (running " + Runtime.version() + ")");
+                }
+                try {
+                    return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Could not create a virtual thread executor", e);
+                }
+            case FORK_JOIN:
+                return new ForkJoinPool(Math.max(1, threads), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+            case PLATFORM:
+            default:
+                AtomicInteger counter = new AtomicInteger();
+                return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+                    Thread t = new Thread(r, threadName + "-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        }
+    }
+
+    public synchronized ExecutionMode getMode() {
+        return mode;
+    }
+
+    public synchronized void setMode(ExecutionMode mode) {
+        if (mode == ExecutionMode.VIRTUAL && !isVirtualThreadsSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later (running " + Runtime.version() + ")");
+        }
+        if (mode == this.mode) return;
+        shutdown();
+        this.mode = mode;
+    }
+
+    public int getPlatformThreads() {
+        return platformThreads;
+    }
+
+    public int getDbConcurrency() {
+        return dbConcurrency;
+    }
+
+    /**
+     * How many submitted tasks are guaranteed to be running their database work at once:
+     * the permit count, further limited by the pool size for the platform and ForkJoin modes
+     */
+    public synchronized int getMaxConcurrentTasks() {
+        return mode == ExecutionMode.VIRTUAL ? dbConcurrency : Math.min(platformThreads, dbConcurrency);
+    }
+
+    /**
+     * Run a task that does database work; it starts only once it holds one of the dbConcurrency permits
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor().submit(() -> callWithDbPermit(task));
+    }
+
+    /**
+     * Run database work on the calling thread once it holds one of the dbConcurrency permits
+     */
+    public <T> T callWithDbPermit(Callable<T> task) throws Exception {
+        dbPermits.acquire();
+        try {
+            return task.call();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    /**
+     * A new executor of the current mode for a fixed set of long-running stages that all have to
+     * run at once, such as a pipeline's producer, transformers and writers; threads is the stage
+     * count. Stages take dbConcurrency permits with callWithDbPermit. The caller must shut it down.
+     */
+    public ExecutorService newStageExecutor(int threads, String threadName) {
+        return newExecutor(getMode(), threads, threadName);
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = newExecutor(mode, platformThreads, "bulk-worker");
+        }
+        return executor;
+    }
+
+    /**
+     * Stop accepting tasks on the current executor; tasks already running finish
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.eshope_console.service;
 
+import com.eshope_console.dao.InsufficientStockException;
 import com.eshope_console.dao.OrderDAO;
+import com.eshope_console.model.KeysetPage;
 import com.eshope_console.model.Order;
 import com.eshope_console.model.OrderItem;
 import com.eshope_console.model.Product;
+import com.eshope_console.util.PageToken;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -23,8 +27,9 @@ public class OrderService {
         if (cartItems.isEmpty()) throw new Exception("Cart is empty.");
         List<OrderItem> orderItems = new ArrayList<>();
         double totalPrice = 0.0;
+        Map<String, Product> products = productService.getProductsByCodes(cartItems.keySet());
         for (Map.Entry<String, Integer> entry : cartItems.entrySet()) {
-            Product product = productService.getProductByCode(entry.getKey());
+            Product product = products.get(entry.getKey());
             if (product == null) throw new Exception("Product not found: " + entry.getKey());
             if (entry.getValue() > product.getStockQuantity()) {
                 throw new Exception("Not enough stock for " + product.getProductName() + ". Available: " + product.getStockQuantity());
@@ -43,18 +48,64 @@ public class OrderService {
         order.setOrderDate(LocalDateTime.now());
         order.setTotalPrice(totalPrice);
         order.setOrderItems(orderItems);
-        Order savedOrder = orderDAO.createOrder(order);
-        for (Map.Entry<String, Integer> entry : cartItems.entrySet()) {
-            Product product = productService.getProductByCode(entry.getKey());
-            int newStock = product.getStockQuantity() - entry.getValue();
-            productService.updateProductStock(product.getProductCode(), newStock);
+        // The check above is only a friendly early exit; the DAO decrements stock atomically with the insert
+        try {
+            Order created = orderDAO.createOrder(order);
+            productService.onStockDecremented(cartItems);
+            return created;
+        } catch (InsufficientStockException e) {
+            String name = e.getProductId();
+            for (Product product : products.values()) {
+                if (product.getProductId().equals(e.getProductId())) name = product.getProductName();
+            }
+            throw new Exception("Not enough stock for " + name + ". Another order took the remaining units.");
+        } finally {
+            productService.invalidateCachedProducts(cartItems.keySet());
         }
-        return savedOrder;
     }
 
     public List<Order> getUserOrders(String userId) throws Exception {
         return orderDAO.findByUserId(userId);
     }
 
+    /**
+     * One page of a user's order history, newest first. Orders come back as summaries with item
+     * counts but no items; call loadOrderItems for the ones being opened. Pass a null token for the first page.
+     */
+    public KeysetPage<Order> getOrderHistoryPage(String userId, String pageToken, int pageSize) throws Exception {
+        pageSize = pageSize < 1 ? 20 : Math.min(pageSize, 200);
+        LocalDateTime afterCreatedAt = null;
+        String afterId = null;
+        if (pageToken != null) {
+            String[] keys = PageToken.decodeScoped(pageToken, "orders", userId, 2);
+            try {
+                afterCreatedAt = LocalDateTime.parse(keys[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid page token", e);
+            }
+            afterId = keys[1];
+        }
+        List<Order> orders = orderDAO.findOrderSummariesAfter(userId, afterCreatedAt, afterId, pageSize + 1);
+        if (orders.size() <= pageSize) {
+            return new KeysetPage<>(orders, null);
+        }
+        List<Order> page = orders.subList(0, pageSize);
+        Order last = page.get(pageSize - 1);
+        return new KeysetPage<>(page, PageToken.encodeScoped("orders", userId, last.getOrderDate().toString(), last.getOrderId()));
+    }
+
+    /**
+     * Fill in the items of the given orders with a single query
+     */
+    public void loadOrderItems(List<Order> orders) throws Exception {
+        if (orders.isEmpty()) return;
+        List<String> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) orderIds.add(order.getOrderId());
+        Map<String, List<OrderItem>> items = orderDAO.findItemsByOrderIds(orderIds);
+        for (Order order : orders) {
+            order.setOrderItems(items.getOrDefault(order.getOrderId(), new ArrayList<>()));
+        }
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.eshope_console.service;
+
+import com.eshope_console.dao.ProductSnapshot;
+import com.eshope_console.model.ProductSummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole products table on several connections at once.
+ * The id space is split into ranges, each scanned by its own worker, and every worker
+ * adopts one exported snapshot so the combined result is a consistent view of the table.
+ * Rows are handed to the sink on the calling thread, either in id order (partition by
+ * partition) or in whatever order the partitions produce them.
+ * Workers run on the given ExecutionStrategy, so at most its dbConcurrency partitions scan at once.
+ */
+public class ParallelProductReader {
+    private static final int BATCH_SIZE = 1000;
+    private static final int QUEUE_BATCHES_PER_PARTITION = 4;
+    private static final List<ProductSummary> END_OF_PARTITION = Collections.emptyList();
+
+    private final ProductService productService;
+    private final ExecutionStrategy executionStrategy;
+    private final int fetchSize;
+
+    public ParallelProductReader(ProductService productService, ExecutionStrategy executionStrategy, int fetchSize) {
+        this.productService = productService;
+        this.executionStrategy = executionStrategy;
+        this.fetchSize = fetchSize;
+    }
+
+    public ReadResult read(int partitions, boolean ordered, Consumer<? super ProductSummary> sink) throws Exception {
+        int requested = Math.max(1, partitions);
+        // An ordered read drains partition 0 before looking at the others, so every partition must be
+        // running at once: a later one holding a thread or permit while blocked on its full queue would
+        // otherwise starve partition 0 for good
+        if (ordered) requested = Math.min(requested, executionStrategy.getMaxConcurrentTasks());
+        List<String> boundaries = productService.getIdPartitionBoundaries(requested);
+        int partitionCount = boundaries.size() + 1;
+
+        List<BlockingQueue<List<ProductSummary>>> queues = new ArrayList<>();
+        if (ordered) {
+            for (int i = 0; i < partitionCount; i++) queues.add(new ArrayBlockingQueue<>(QUEUE_BATCHES_PER_PARTITION));
+        } else {
+            BlockingQueue<List<ProductSummary>> shared = new ArrayBlockingQueue<>(QUEUE_BATCHES_PER_PARTITION * partitionCount);
+            for (int i = 0; i < partitionCount; i++) queues.add(shared);
+        }
+
+        long startNanos = System.nanoTime();
+        List<Future<PartitionStats>> workers = new ArrayList<>();
+        try (ProductSnapshot snapshot = productService.exportSnapshot()) {
+            for (int i = 0; i < partitionCount; i++) {
+                String from = i == 0 ? null : boundaries.get(i - 1);
+                String to = i == partitionCount - 1 ? null : boundaries.get(i);
+                workers.add(executionStrategy.submit(new PartitionWorker(i, from, to, snapshot, queues.get(i))));
+            }
+
+            long delivered = 0;
+            if (ordered) {
+                for (BlockingQueue<List<ProductSummary>> queue : queues) {
+                    delivered += drain(queue, 1, workers, sink);
+                }
+            } else {
+                delivered = drain(queues.get(0), partitionCount, workers, sink);
+            }
+
+            List<PartitionStats> stats = new ArrayList<>();
+            for (Future<PartitionStats> worker : workers) stats.add(worker.get());
+            return new ReadResult(delivered, System.nanoTime() - startNanos, stats);
+        } finally {
+            for (Future<PartitionStats> worker : workers) worker.cancel(true);
+        }
+    }
+
+    /**
+     * Hand batches from the queue to the sink until the expected number of partitions have finished.
+     * While waiting, checks whether any worker failed so a dead partition cannot stall the reader.
+     */
+    private long drain(BlockingQueue<List<ProductSummary>> queue, int partitionsToFinish, List<Future<PartitionStats>> workers,
+                       Consumer<? super ProductSummary> sink) throws Exception {
+        long delivered = 0;
+        int finished = 0;
+        while (finished < partitionsToFinish) {
+            List<ProductSummary> batch = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (batch == null) {
+                rethrowFailure(workers);
+            } else if (batch == END_OF_PARTITION) {
+                finished++;
+            } else {
+                for (ProductSummary product : batch) sink.accept(product);
+                delivered += batch.size();
+            }
+        }
+        return delivered;
+    }
+
+    private void rethrowFailure(List<Future<PartitionStats>> workers) throws Exception {
+        for (Future<PartitionStats> worker : workers) {
+            if (!worker.isDone() || worker.isCancelled()) continue;
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) throw (Exception) cause;
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private final class PartitionWorker implements Callable<PartitionStats>, Consumer<ProductSummary> {
+        private final int index;
+        private final String fromInclusive;
+        private final String toExclusive;
+        private final ProductSnapshot snapshot;
+        private final BlockingQueue<List<ProductSummary>> queue;
+        private List<ProductSummary> batch = new ArrayList<>(BATCH_SIZE);
+
+        PartitionWorker(int index, String fromInclusive, String toExclusive, ProductSnapshot snapshot,
+                        BlockingQueue<List<ProductSummary>> queue) {
+            this.index = index;
+            this.fromInclusive = fromInclusive;
+            this.toExclusive = toExclusive;
+            this.snapshot = snapshot;
+            this.queue = queue;
+        }
+
+        @Override
+        public PartitionStats call() throws Exception {
+            long start = System.nanoTime();
+            long rows = productService.scanProductRange(snapshot, fromInclusive, toExclusive, fetchSize, this);
+            if (!batch.isEmpty()) queue.put(batch);
+            queue.put(END_OF_PARTITION);
+            return new PartitionStats(index, fromInclusive, toExclusive, rows, System.nanoTime() - start);
+        }
+
+        @Override
+        public void accept(ProductSummary product) {
+            batch.add(product);
+            if (batch.size() < BATCH_SIZE) return;
+            try {
+                queue.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Partition " + index + " cancelled");
+            }
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Rows and timing for one id range
+     */
+    public static class PartitionStats {
+        private final int index;
+        private final String fromInclusive;
+        private final String toExclusive;
+        private final long rows;
+        private final long elapsedNanos;
+
+        public PartitionStats(int index, String fromInclusive, String toExclusive, long rows, long elapsedNanos) {
+            this.index = index;
+            this.fromInclusive = fromInclusive;
+            this.toExclusive = toExclusive;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getFromInclusive() {
+            return fromInclusive;
+        }
+
+        public String getToExclusive() {
+            return toExclusive;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1_000_000_000.0;
+        }
+
+        public double getRowsPerSecond() {
+            double seconds = getElapsedSeconds();
+            return seconds > 0 ? rows / seconds : 0.0;
+        }
+    }
+
+    /**
+     * Totals for a parallel read
+     */
+    public static class ReadResult {
+        private final long totalRows;
+        private final long elapsedNanos;
+        private final List<PartitionStats> partitions;
+
+        public ReadResult(long totalRows, long elapsedNanos, List<PartitionStats> partitions) {
+            this.totalRows = totalRows;
+            this.elapsedNanos = elapsedNanos;
+            this.partitions = partitions;
+        }
+
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1_000_000_000.0;
+        }
+
+        public double getRowsPerSecond() {
+            double seconds = getElapsedSeconds();
+            return seconds > 0 ? totalRows / seconds : 0.0;
+        }
+
+        public List<PartitionStats> getPartitions() {
+            return partitions;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.eshope_console.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary index over a ProductCatalog ordered by (price, ordinal).
+ * Each entry is one long: the price in cents (biased so DECIMAL(10,2) negatives sort first) in
+ * the high 35 bits and the catalog ordinal in the low 28, so a sorted long[] orders by price and
+ * breaks ties by ordinal, which is id order for a scanned catalog.
+ * A BETWEEN query is two binary searches and a contiguous slice; a keyset continuation is one
+ * more binary search on the last key returned.
+ * Price changes and new rows go to a small sorted delta and a tombstone set that queries merge
+ * on the fly; once those grow past a fraction of the index they are folded into the main array.
+ */
+public class PriceIndex {
+    private static final int ORDINAL_BITS = 28;
+    private static final long ORDINAL_MASK = (1L << ORDINAL_BITS) - 1;
+    private static final long PRICE_BIAS = 1L << (62 - ORDINAL_BITS);
+    private static final long MIN_PRICE_CENTS = -PRICE_BIAS;
+    private static final long MAX_PRICE_CENTS = PRICE_BIAS - 1;
+    private static final int MIN_COMPACTION_THRESHOLD = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] keys;
+    private final NavigableSet<Long> added = new TreeSet<>();
+    private final Set<Long> removed = new HashSet<>();
+
+    /**
+     * Build from parallel columns, where prices[o] is the price of ordinal o
+     */
+    PriceIndex(long[] prices, int size) {
+        long[] built = new long[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            built[ordinal] = key(prices[ordinal], ordinal);
+        }
+        Arrays.parallelSort(built);
+        this.keys = built;
+    }
+
+    public static long key(long priceCents, int ordinal) {
+        if (priceCents < MIN_PRICE_CENTS || priceCents > MAX_PRICE_CENTS || ordinal < 0 || ordinal > ORDINAL_MASK) {
+            throw new IllegalArgumentException("Price " + priceCents + " or ordinal " + ordinal + " out of index range");
+        }
+        return ((priceCents + PRICE_BIAS) << ORDINAL_BITS) | ordinal;
+    }
+
+    public static long priceCentsOf(long key) {
+        return (key >>> ORDINAL_BITS) - PRICE_BIAS;
+    }
+
+    public static int ordinalOf(long key) {
+        return (int) (key & ORDINAL_MASK);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keys.length - removed.size() + added.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of entries priced within [minCents, maxCents]
+     */
+    public int count(long minCents, long maxCents) {
+        if (maxCents < minCents) return 0;
+        long low = lowKey(minCents);
+        long high = highKey(maxCents);
+        lock.readLock().lock();
+        try {
+            int count = upperBound(keys, high) - lowerBound(keys, low);
+            for (long key : removed) {
+                if (key >= low && key <= high) count--;
+            }
+            return count + added.subSet(low, true, high, true).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keys priced within [minCents, maxCents] in index order, skipping the first offset matches.
+     * Pass afterKey (the last key of the previous page) to continue past it, or -1 to start at minCents.
+     */
+    public long[] range(long minCents, long maxCents, long afterKey, int offset, int limit) {
+        if (maxCents < minCents || limit <= 0) return new long[0];
+        long high = highKey(maxCents);
+        if (afterKey >= high) return new long[0];
+        long start = Math.max(lowKey(minCents), afterKey + 1);
+        lock.readLock().lock();
+        try {
+            int i = lowerBound(keys, start);
+            if (added.isEmpty() && removed.isEmpty()) {
+                // Fast path: the answer is one contiguous slice of the main array
+                int from = (int) Math.min((long) i + Math.max(0, offset), keys.length);
+                int to = Math.min(upperBound(keys, high), (int) Math.min((long) from + limit, keys.length));
+                return from >= to ? new long[0] : Arrays.copyOfRange(keys, from, to);
+            }
+
+            long[] out = new long[Math.min(limit, 1024)];
+            int n = 0;
+            int skip = Math.max(0, offset);
+            Iterator<Long> delta = added.tailSet(start, true).iterator();
+            long nextDelta = delta.hasNext() ? delta.next() : Long.MAX_VALUE;
+            while (n < limit) {
+                long next;
+                if (i < keys.length && keys[i] <= nextDelta) {
+                    next = keys[i++];
+                    if (removed.contains(next)) continue;
+                } else if (nextDelta != Long.MAX_VALUE) {
+                    next = nextDelta;
+                    nextDelta = delta.hasNext() ? delta.next() : Long.MAX_VALUE;
+                } else {
+                    break;
+                }
+                if (next > high) break;
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                if (n == out.length) out = Arrays.copyOf(out, Math.min(limit, out.length * 2));
+                out[n++] = next;
+            }
+            return Arrays.copyOf(out, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void add(long priceCents, int ordinal) {
+        long key = key(priceCents, ordinal);
+        lock.writeLock().lock();
+        try {
+            if (!removed.remove(key)) added.add(key);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void move(int ordinal, long oldPriceCents, long newPriceCents) {
+        if (oldPriceCents == newPriceCents) return;
+        long oldKey = key(oldPriceCents, ordinal);
+        long newKey = key(newPriceCents, ordinal);
+        lock.writeLock().lock();
+        try {
+            if (!added.remove(oldKey)) removed.add(oldKey);
+            if (!removed.remove(newKey)) added.add(newKey);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (added.size() + removed.size() < Math.max(MIN_COMPACTION_THRESHOLD, keys.length / 64)) return;
+        long[] merged = new long[keys.length - removed.size() + added.size()];
+        int n = 0;
+        int i = 0;
+        Iterator<Long> delta = added.iterator();
+        long nextDelta = delta.hasNext() ? delta.next() : Long.MAX_VALUE;
+        while (i < keys.length || nextDelta != Long.MAX_VALUE) {
+            if (i < keys.length && keys[i] <= nextDelta) {
+                long key = keys[i++];
+                if (!removed.contains(key)) merged[n++] = key;
+            } else {
+                merged[n++] = nextDelta;
+                nextDelta = delta.hasNext() ? delta.next() : Long.MAX_VALUE;
+            }
+        }
+        keys = n == merged.length ? merged : Arrays.copyOf(merged, n);
+        added.clear();
+        removed.clear();
+    }
+
+    private static long lowKey(long minCents) {
+        return key(Math.min(Math.max(minCents, MIN_PRICE_CENTS), MAX_PRICE_CENTS), 0);
+    }
+
+    private static long highKey(long maxCents) {
+        return key(Math.min(Math.max(maxCents, MIN_PRICE_CENTS), MAX_PRICE_CENTS), (int) ORDINAL_MASK);
+    }
+
+    // First index whose key is >= target
+    private static int lowerBound(long[] sorted, long target) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < target) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // First index whose key is > target
+    private static int upperBound(long[] sorted, long target) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= target) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,162 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.Product;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of products by code, with an optional time-to-live.
+ * Writers bump a generation counter when they invalidate; a loader that started before
+ * the bump does not put its (possibly stale) result back into the cache.
+ */
+public class ProductCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+    private long generation = 0;
+
+    /**
+     * @param maxSize    maximum number of cached products
+     * @param ttlSeconds seconds an entry stays valid after loading; 0 disables expiry
+     */
+    public ProductCache(int maxSize, long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ProductCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached product, or null on a miss
+     */
+    public synchronized Product get(String code) {
+        Entry entry = entries.get(code);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(code);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.product;
+    }
+
+    /**
+     * Generation to pass to putIfUnchanged; read it before loading from the database
+     */
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache a freshly loaded product unless some write invalidated the cache since loadGeneration
+     */
+    public synchronized void putIfUnchanged(String code, Product product, long loadGeneration) {
+        if (product == null || loadGeneration != generation) return;
+        entries.put(code, new Entry(product, System.nanoTime()));
+    }
+
+    public synchronized void invalidate(String code) {
+        generation++;
+        entries.remove(code);
+    }
+
+    public synchronized void invalidateAll(Collection<String> codes) {
+        generation++;
+        if (entries.isEmpty()) return;
+        for (String code : codes) entries.remove(code);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(entries.size(), maxSize, hits, misses, evictions, expirations);
+    }
+
+    private static final class Entry {
+        private final Product product;
+        private final long loadedAt;
+
+        Entry(Product product, long loadedAt) {
+            this.product = product;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Point-in-time cache counters
+     */
+    public static class CacheStats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        public CacheStats(int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d/%d hits=%,d misses=%,d hitRate=%.1f%% evictions=%,d expirations=%,d",
+                    size, maxSize, hits, misses, getHitRate() * 100, evictions, expirations);
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Read-optimized, column-per-field copy of the products table.
+ * Each product is an ordinal into parallel primitive arrays instead of an object:
+ * codes are split into a dictionary-encoded prefix format and an int number, prices are
+ * cents, categories are byte ordinals into a dictionary, created_at is epoch millis and
+ * names live UTF-8 encoded in one byte arena. Descriptions are not kept.
+ * Around 40 bytes per product plus the name bytes, so 10M rows fit well under 1 GB.
+ * <p>
+ * Reads go through a View, a reusable cursor with Product-like getters. Only one thread may
+ * write; readers can run alongside appends and see each row once it is complete, but may see
+ * updates to existing rows late. Readers read size before touching any column and never follow
+ * an ordinal at or past it, and the dictionary maps are concurrent, so no reader needs a lock.
+ * Once buildPriceIndex has run, writes keep the price index current.
+ */
+public class ProductCatalog {
+    private static final int MAX_DICTIONARY_SIZE = 255;
+    // Code format ordinal for codes that do not fit prefix + up to 9 digits
+    private static final int IRREGULAR_CODE = 255;
+    private static final float MAX_LOAD = 0.6f;
+    // Key for products without a category; ConcurrentHashMap takes no null keys
+    private static final String NO_CATEGORY = "\u0000";
+
+    // Columns and dictionaries are package-private so CatalogSnapshot can write and restore them
+
+    // Code formats: a prefix and a zero-padded digit width, e.g. ("P", 9) for P000000042
+    final String[] formatPrefixes = new String[MAX_DICTIONARY_SIZE];
+    final int[] formatWidths = new int[MAX_DICTIONARY_SIZE];
+    private final Map<String, Integer> formatOrdinals = new ConcurrentHashMap<>();
+    private final Map<String, Integer> irregularCodes = new ConcurrentHashMap<>();
+    final Map<Integer, String> irregularCodesByOrdinal = new ConcurrentHashMap<>();
+
+    final String[] categoryIds = new String[MAX_DICTIONARY_SIZE];
+    final String[] categoryNames = new String[MAX_DICTIONARY_SIZE];
+    private final Map<String, Integer> categoryOrdinals = new ConcurrentHashMap<>();
+    int categoryCount = 0;
+    int formatCount = 0;
+
+    // Written after the columns, so a reader that sees an ordinal below size sees its data
+    volatile int size = 0;
+    byte[] codeFormats;
+    int[] codeNumbers;
+    long[] priceCents;
+    int[] stock;
+    byte[] categories;
+    long[] createdAtMillis;
+    int[] nameStarts;
+    short[] nameLengths;
+    byte[] nameBytes;
+    int nameBytesUsed = 0;
+
+    // Open-addressing hash of (format, number) to ordinal + 1; 0 marks an empty slot
+    private volatile int[] codeTable;
+
+    // Where the data came from, for catching up with later changes (see ProductService.catchUpCatalog)
+    private volatile long xminHorizon = -1;
+    private volatile long sourceFilenode = -1;
+
+    private volatile PriceIndex priceIndex;
+
+    public ProductCatalog(int expectedSize) {
+        this(Math.max(16, expectedSize), (int) Math.min(Math.max(1024L, Math.max(16, expectedSize) * 24L), Integer.MAX_VALUE - 8));
+    }
+
+    ProductCatalog(int capacity, int nameCapacity) {
+        codeFormats = new byte[capacity];
+        codeNumbers = new int[capacity];
+        priceCents = new long[capacity];
+        stock = new int[capacity];
+        categories = new byte[capacity];
+        createdAtMillis = new long[capacity];
+        nameStarts = new int[capacity];
+        nameLengths = new short[capacity];
+        nameBytes = new byte[nameCapacity];
+        codeTable = new int[tableSizeFor(Math.max(16, capacity))];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Transaction horizon the catalog is known to be current as of; rows changed by later
+     * transactions may be missing or stale. -1 when unknown.
+     */
+    public long getXminHorizon() {
+        return xminHorizon;
+    }
+
+    /**
+     * Storage file number of the products table the catalog was loaded from, -1 when unknown
+     */
+    public long getSourceFilenode() {
+        return sourceFilenode;
+    }
+
+    void setSource(long xminHorizon, long sourceFilenode) {
+        this.xminHorizon = xminHorizon;
+        this.sourceFilenode = sourceFilenode;
+    }
+
+    /**
+     * Sort the price column into a PriceIndex, which later writes keep up to date.
+     * Must be called by the writing thread.
+     */
+    PriceIndex buildPriceIndex() {
+        PriceIndex built = new PriceIndex(priceCents, size);
+        priceIndex = built;
+        return built;
+    }
+
+    /**
+     * The price index, or null until buildPriceIndex has run
+     */
+    public PriceIndex getPriceIndex() {
+        return priceIndex;
+    }
+
+    /**
+     * Rebuild the lookup maps and code hash from restored columns and dictionaries
+     */
+    void rebuildLookups() {
+        formatOrdinals.clear();
+        for (int format = 0; format < formatCount; format++) {
+            formatOrdinals.put(formatPrefixes[format] + '\u0000' + formatWidths[format], format);
+        }
+        categoryOrdinals.clear();
+        for (int category = 0; category < categoryCount; category++) {
+            categoryOrdinals.put(categoryKey(categoryIds[category]), category);
+        }
+        irregularCodes.clear();
+        for (Map.Entry<Integer, String> entry : irregularCodesByOrdinal.entrySet()) {
+            irregularCodes.put(entry.getValue(), entry.getKey());
+        }
+        rehash(tableSizeFor(Math.max(16, codeNumbers.length)));
+    }
+
+    /**
+     * Add a product, or overwrite the row with the same code. Usable as a scan visitor.
+     */
+    public void put(Product product) {
+        String code = product.getProductCode() != null ? product.getProductCode() : product.getProductId();
+        int ordinal = indexOf(code);
+        boolean added = ordinal < 0;
+        if (added) ordinal = append(code);
+        long oldPriceCents = priceCents[ordinal];
+        priceCents[ordinal] = Math.round(product.getPrice() * 100);
+        stock[ordinal] = product.getStockQuantity();
+        categories[ordinal] = (byte) categoryOrdinal(product.getCategoryId(), product.getCategoryName());
+        createdAtMillis[ordinal] = product.getCreatedAt() == null
+                ? 0L
+                : product.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        setName(ordinal, product.getProductName(), added);
+        if (added) size = ordinal + 1;
+
+        PriceIndex index = priceIndex;
+        if (index == null) return;
+        if (added) index.add(priceCents[ordinal], ordinal);
+        else index.move(ordinal, oldPriceCents, priceCents[ordinal]);
+    }
+
+    /**
+     * Set the stock of the product with this code; false if it is not in the catalog
+     */
+    public boolean setStock(String code, int quantity) {
+        int ordinal = indexOf(code);
+        if (ordinal < 0) return false;
+        stock[ordinal] = quantity;
+        return true;
+    }
+
+    /**
+     * Subtract from the stock of the product with this code; false if it is not in the catalog
+     */
+    public boolean decrementStock(String code, int quantity) {
+        int ordinal = indexOf(code);
+        if (ordinal < 0) return false;
+        stock[ordinal] -= quantity;
+        return true;
+    }
+
+    /**
+     * Ordinal of the product with this code, or -1
+     */
+    public int indexOf(String code) {
+        if (code == null) return -1;
+        // Read first: the column arrays a reader sees afterwards hold every ordinal below it
+        int limit = size;
+        int digits = trailingDigits(code);
+        Integer format = digits == 0 || digits > 9 ? null : formatOrdinals.get(formatKey(code, digits));
+        if (format == null) {
+            // Includes digit-suffixed codes appended after the format dictionary filled up
+            Integer ordinal = irregularCodes.get(code);
+            return ordinal == null || ordinal >= limit ? -1 : ordinal;
+        }
+        int number = Integer.parseInt(code, code.length() - digits, code.length(), 10);
+        int[] table = codeTable;
+        int mask = table.length - 1;
+        for (int slot = hash(format, number) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int ordinal = table[slot] - 1;
+            // A row still being appended; its columns may not be visible yet
+            if (ordinal >= limit) continue;
+            if ((codeFormats[ordinal] & 0xFF) == format && codeNumbers[ordinal] == number) return ordinal;
+        }
+        return -1;
+    }
+
+    /**
+     * A view positioned on the product with this code, or null if it is not in the catalog
+     */
+    public View find(String code) {
+        int ordinal = indexOf(code);
+        return ordinal < 0 ? null : new View().moveTo(ordinal);
+    }
+
+    /**
+     * A cursor for reading rows by ordinal
+     */
+    public View view() {
+        return new View();
+    }
+
+    public void forEach(Consumer<? super View> visitor) {
+        forEach(0, size, visitor);
+    }
+
+    /**
+     * Visit ordinals [fromInclusive, toExclusive) with a single reused view.
+     * Ordinals follow load order, which is id order when the catalog is filled from a scan.
+     */
+    public void forEach(int fromInclusive, int toExclusive, Consumer<? super View> visitor) {
+        View view = new View();
+        for (int ordinal = Math.max(0, fromInclusive); ordinal < Math.min(size, toExclusive); ordinal++) {
+            visitor.accept(view.moveTo(ordinal));
+        }
+    }
+
+    /**
+     * Approximate heap held by the columns, dictionaries excluded
+     */
+    public long estimatedMemoryBytes() {
+        long capacity = codeNumbers.length;
+        return capacity * (1 + 4 + 8 + 4 + 1 + 8 + 4 + 2) + nameBytes.length + codeTable.length * 4L;
+    }
+
+    private int append(String code) {
+        ensureCapacity(size + 1);
+        if (size + 1 > codeTable.length * MAX_LOAD) rehash(codeTable.length * 2);
+        // Not counted in size until put() has filled in every column
+        int ordinal = size;
+        int digits = trailingDigits(code);
+        Integer format = digits == 0 || digits > 9 ? null : formatOrdinal(code, digits);
+        if (format == null) {
+            codeFormats[ordinal] = (byte) IRREGULAR_CODE;
+            irregularCodes.put(code, ordinal);
+            irregularCodesByOrdinal.put(ordinal, code);
+            return ordinal;
+        }
+        codeFormats[ordinal] = (byte) (int) format;
+        codeNumbers[ordinal] = Integer.parseInt(code, code.length() - digits, code.length(), 10);
+        insertIntoTable(codeTable, ordinal);
+        return ordinal;
+    }
+
+    private void insertIntoTable(int[] table, int ordinal) {
+        int mask = table.length - 1;
+        int slot = hash(codeFormats[ordinal] & 0xFF, codeNumbers[ordinal]) & mask;
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = ordinal + 1;
+    }
+
+    // Fills a new table before swapping it in, so concurrent lookups never see a half-built one
+    private void rehash(int tableSize) {
+        int[] table = new int[tableSize];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if ((codeFormats[ordinal] & 0xFF) != IRREGULAR_CODE) insertIntoTable(table, ordinal);
+        }
+        codeTable = table;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= codeNumbers.length) return;
+        int capacity = Math.max(required, codeNumbers.length + (codeNumbers.length >> 1));
+        codeFormats = Arrays.copyOf(codeFormats, capacity);
+        codeNumbers = Arrays.copyOf(codeNumbers, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        createdAtMillis = Arrays.copyOf(createdAtMillis, capacity);
+        nameStarts = Arrays.copyOf(nameStarts, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+    }
+
+    private void setName(int ordinal, String name, boolean added) {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, Short.MAX_VALUE);
+        // A rename that fits reuses the old bytes; otherwise the old bytes are abandoned in the arena
+        if (!added && length <= nameLengths[ordinal]) {
+            System.arraycopy(bytes, 0, nameBytes, nameStarts[ordinal], length);
+        } else {
+            if (nameBytesUsed + length > nameBytes.length) {
+                long grown = Math.max((long) nameBytesUsed + length, nameBytes.length + (long) (nameBytes.length >> 1));
+                nameBytes = Arrays.copyOf(nameBytes, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+            }
+            System.arraycopy(bytes, 0, nameBytes, nameBytesUsed, length);
+            nameStarts[ordinal] = nameBytesUsed;
+            nameBytesUsed += length;
+        }
+        nameLengths[ordinal] = (short) length;
+    }
+
+    private int categoryOrdinal(String categoryId, String categoryName) {
+        Integer ordinal = categoryOrdinals.get(categoryKey(categoryId));
+        if (ordinal == null) {
+            if (categoryCount == MAX_DICTIONARY_SIZE) {
+                throw new IllegalStateException("Catalog supports at most " + MAX_DICTIONARY_SIZE + " categories");
+            }
+            ordinal = categoryCount++;
+            categoryIds[ordinal] = categoryId;
+            categoryOrdinals.put(categoryKey(categoryId), ordinal);
+        }
+        if (categoryName != null) categoryNames[ordinal] = categoryName;
+        return ordinal;
+    }
+
+    private Integer formatOrdinal(String code, int digits) {
+        String key = formatKey(code, digits);
+        Integer ordinal = formatOrdinals.get(key);
+        if (ordinal == null && formatCount < IRREGULAR_CODE) {
+            ordinal = formatCount++;
+            formatPrefixes[ordinal] = code.substring(0, code.length() - digits);
+            formatWidths[ordinal] = digits;
+            formatOrdinals.put(key, ordinal);
+        }
+        return ordinal;
+    }
+
+    private String codeAt(int ordinal) {
+        int format = codeFormats[ordinal] & 0xFF;
+        if (format == IRREGULAR_CODE) return irregularCodesByOrdinal.get(ordinal);
+        String digits = Integer.toString(codeNumbers[ordinal]);
+        StringBuilder code = new StringBuilder(formatPrefixes[format].length() + formatWidths[format]);
+        code.append(formatPrefixes[format]);
+        for (int i = digits.length(); i < formatWidths[format]; i++) code.append('0');
+        return code.append(digits).toString();
+    }
+
+    private static String categoryKey(String categoryId) {
+        return categoryId == null ? NO_CATEGORY : categoryId;
+    }
+
+    private static String formatKey(String code, int digits) {
+        return code.substring(0, code.length() - digits) + '\u0000' + digits;
+    }
+
+    private static int trailingDigits(String code) {
+        int digits = 0;
+        for (int i = code.length() - 1; i >= 0 && code.charAt(i) >= '0' && code.charAt(i) <= '9'; i--) digits++;
+        return digits;
+    }
+
+    private static int hash(int format, int number) {
+        int h = number * 0x9E3779B9 + format;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int entries) {
+        int needed = (int) Math.ceil(entries / MAX_LOAD);
+        return Integer.highestOneBit(Math.max(16, needed - 1)) << 1;
+    }
+
+    /**
+     * Flyweight cursor over one catalog row. moveTo repositions it without allocating;
+     * string and date getters build their values on each call.
+     */
+    public final class View {
+        private int ordinal = -1;
+
+        public View moveTo(int ordinal) {
+            if (ordinal < 0 || ordinal >= size) throw new IndexOutOfBoundsException("Ordinal " + ordinal + " of " + size);
+            this.ordinal = ordinal;
+            return this;
+        }
+
+        public int getOrdinal() {
+            return ordinal;
+        }
+
+        public String getProductId() {
+            return codeAt(ordinal);
+        }
+
+        public String getProductCode() {
+            return codeAt(ordinal);
+        }
+
+        public String getProductName() {
+            return new String(nameBytes, nameStarts[ordinal], nameLengths[ordinal], StandardCharsets.UTF_8);
+        }
+
+        public String getCategoryId() {
+            return categoryIds[categories[ordinal] & 0xFF];
+        }
+
+        public String getCategoryName() {
+            return categoryNames[categories[ordinal] & 0xFF];
+        }
+
+        public long getPriceCents() {
+            return priceCents[ordinal];
+        }
+
+        public double getPrice() {
+            return priceCents[ordinal] / 100.0;
+        }
+
+        public int getStockQuantity() {
+            return stock[ordinal];
+        }
+
+        public long getCreatedAtEpochMillis() {
+            return createdAtMillis[ordinal];
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis[ordinal]), ZoneOffset.UTC);
+        }
+
+        /**
+         * Materialize this row as a Product (without description)
+         */
+        public Product toProduct() {
+            Product product = new Product();
+            String code = getProductCode();
+            product.setProductId(code);
+            product.setProductCode(code);
+            product.setProductName(getProductName());
+            product.setCategoryId(getCategoryId());
+            product.setCategoryName(getCategoryName());
+            product.setPrice(getPrice());
+            product.setStockQuantity(getStockQuantity());
+            product.setCreatedAt(getCreatedAt());
+            return product;
+        }
+    }
+}
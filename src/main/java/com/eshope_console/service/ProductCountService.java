@@ -0,0 +1,76 @@
+package com.eshope_console.service;
+
+import com.eshope_console.dao.ProductDAO;
+import com.eshope_console.model.CountMode;
+
+/**
+ * Product totals without a COUNT(*) per call.
+ * The exact counter is seeded once from the database and then adjusted by ProductService
+ * on every insert and truncate, so it only sees writes made through this process; reseed()
+ * recounts if rows were changed elsewhere. The approximate count scales pg_class.reltuples
+ * to the table's current size, the same estimate the planner uses.
+ */
+public class ProductCountService {
+    private final ProductDAO productDAO;
+    private long exactCount = 0;
+    private boolean seeded = false;
+    private long truncations = 0;
+    // Rows reported by onInserted over the service's lifetime, seeded or not
+    private long insertedTotal = 0;
+
+    public ProductCountService(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+
+    public long count(CountMode mode) throws Exception {
+        if (mode == CountMode.APPROXIMATE) {
+            long estimate = productDAO.getEstimatedProductCount();
+            if (estimate >= 0) return estimate;
+            // Never analyzed or empty on disk; the exact counter is the only answer
+        }
+        return exactCount();
+    }
+
+    public long exactCount() throws Exception {
+        synchronized (this) {
+            if (seeded) return exactCount;
+        }
+        reseed();
+        synchronized (this) {
+            return exactCount;
+        }
+    }
+
+    /**
+     * Recount the table and restart the counter from that value. The COUNT(*) runs without
+     * holding the lock; rows reported inserted while it runs are added on top of it, and the
+     * result is dropped if a truncate landed meanwhile. An insert that committed before the
+     * count's snapshot but is reported after the recount started is counted twice.
+     */
+    public void reseed() throws Exception {
+        long truncationsBefore;
+        long insertedBefore;
+        synchronized (this) {
+            truncationsBefore = truncations;
+            insertedBefore = insertedTotal;
+        }
+        long counted = productDAO.getTotalProductCount();
+        synchronized (this) {
+            if (truncations == truncationsBefore) {
+                exactCount = counted + (insertedTotal - insertedBefore);
+                seeded = true;
+            }
+        }
+    }
+
+    public synchronized void onInserted(long rows) {
+        insertedTotal += rows;
+        if (seeded) exactCount += rows;
+    }
+
+    public synchronized void onTruncated() {
+        exactCount = 0;
+        seeded = true;
+        truncations++;
+    }
+}
@@ -0,0 +1,206 @@
+package com.eshope_console.service;
+
+import com.eshope_console.dao.ProductBulkWriter;
+import com.eshope_console.dao.ProductCopyLoader;
+import com.eshope_console.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Producer → transformer → writer pipeline for loading generated products.
+ * Stages are connected by bounded queues, so a slow database throttles generation
+ * instead of letting chunks pile up on the heap. Each writer owns one connection.
+ * Stages run on threads of the ExecutionStrategy's mode, and writers hold one of its database
+ * permits while they write a chunk, so there are never more writers than permits.
+ * The first failure in any stage cancels the others and is rethrown from run().
+ */
+public class ProductIngestPipeline {
+    private static final Range END_OF_RANGES = new Range(-1, 0);
+    private static final List<Product> END_OF_CHUNKS = Collections.emptyList();
+
+    private final ProductService productService;
+    private final ExecutionStrategy executionStrategy;
+    private final int writerCount;
+    private final int transformerCount;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final ProductCopyLoader.Format format;
+
+    public ProductIngestPipeline(ProductService productService, ExecutionStrategy executionStrategy,
+                                 int writerCount, int chunkSize, ProductCopyLoader.Format format) {
+        if (writerCount < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Writer count and chunk size must be positive");
+        }
+        this.productService = productService;
+        this.executionStrategy = executionStrategy;
+        // A writer beyond the permit count would only hold an idle connection
+        this.writerCount = Math.min(writerCount, executionStrategy.getDbConcurrency());
+        this.transformerCount = Math.max(1, this.writerCount / 2);
+        this.chunkSize = chunkSize;
+        this.queueCapacity = this.writerCount * 2;
+        this.format = format;
+    }
+
+    public int getWriterCount() {
+        return writerCount;
+    }
+
+    /**
+     * Generate and load products with sequence numbers 1..totalProducts.
+     * Blocks until every chunk is written or a stage fails.
+     */
+    public IngestResult run(int totalProducts, ProgressListener listener) throws Exception {
+        BlockingQueue<Range> ranges = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<Product>> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger runningTransformers = new AtomicInteger(transformerCount);
+        AtomicInteger chunksWritten = new AtomicInteger();
+        AtomicLong rowsWritten = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int totalChunks = (totalProducts + chunkSize - 1) / chunkSize;
+
+        ExecutorService stages = executionStrategy.newStageExecutor(1 + transformerCount + writerCount, "ingest-stage");
+
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        try {
+            running.add(stage(stages, failure, () -> {
+                for (int start = 0; start < totalProducts; start += chunkSize) {
+                    ranges.put(new Range(start, Math.min(chunkSize, totalProducts - start)));
+                }
+                for (int i = 0; i < transformerCount; i++) ranges.put(END_OF_RANGES);
+            }));
+
+            for (int t = 0; t < transformerCount; t++) {
+                running.add(stage(stages, failure, () -> {
+                    Range range;
+                    while ((range = ranges.take()) != END_OF_RANGES) {
+                        chunks.put(generateChunk(range));
+                    }
+                    // The last transformer out tells every writer there is nothing more to come
+                    if (runningTransformers.decrementAndGet() == 0) {
+                        for (int i = 0; i < writerCount; i++) chunks.put(END_OF_CHUNKS);
+                    }
+                }));
+            }
+
+            for (int w = 0; w < writerCount; w++) {
+                running.add(stage(stages, failure, () -> {
+                    try (ProductBulkWriter writer = productService.openBulkWriter(format)) {
+                        List<Product> chunk;
+                        while ((chunk = chunks.take()) != END_OF_CHUNKS) {
+                            List<Product> rowsToWrite = chunk;
+                            long written = executionStrategy.callWithDbPermit(
+                                    () -> productService.copyInsertProducts(writer, rowsToWrite));
+                            long rows = rowsWritten.addAndGet(written);
+                            if (listener != null) {
+                                listener.onChunkWritten(chunksWritten.incrementAndGet(), totalChunks, rows);
+                            }
+                        }
+                    }
+                }));
+            }
+
+            // Any stage failing shuts the executor down, interrupting stages blocked on a queue
+            for (CompletableFuture<Void> stage : running) {
+                stage.whenComplete((ignored, error) -> {
+                    if (error != null) stages.shutdownNow();
+                });
+            }
+            try {
+                CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                // reported through failure below
+            }
+        } finally {
+            stages.shutdownNow();
+        }
+
+        Throwable error = failure.get();
+        if (error != null) {
+            if (error instanceof Exception) throw (Exception) error;
+            throw new RuntimeException(error);
+        }
+        return new IngestResult(rowsWritten.get(), System.nanoTime() - startNanos);
+    }
+
+    private List<Product> generateChunk(Range range) {
+        List<Product> chunk = new ArrayList<>(range.count);
+        for (int i = 0; i < range.count; i++) {
+            int sequence = range.start + i + 1;
+            Product product = productService.generateSampleProduct(sequence);
+            String productId = String.format("P%09d", sequence);
+            product.setProductId(productId);
+            product.setProductCode(productId);
+            chunk.add(product);
+        }
+        return chunk;
+    }
+
+    private static CompletableFuture<Void> stage(ExecutorService executor, AtomicReference<Throwable> failure, Stage body) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                body.run();
+            } catch (Exception e) {
+                // Stages cancelled after another one failed see InterruptedException; the first cause wins
+                failure.compareAndSet(null, e);
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onChunkWritten(int chunksWritten, int totalChunks, long rowsWritten);
+    }
+
+    private static final class Range {
+        private final int start;
+        private final int count;
+
+        Range(int start, int count) {
+            this.start = start;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Outcome of a pipeline run
+     */
+    public static class IngestResult {
+        private final long rowsWritten;
+        private final long elapsedNanos;
+
+        public IngestResult(long rowsWritten, long elapsedNanos) {
+            this.rowsWritten = rowsWritten;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRowsWritten() {
+            return rowsWritten;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1_000_000_000.0;
+        }
+
+        public double getRowsPerSecond() {
+            double seconds = getElapsedSeconds();
+            return seconds > 0 ? rowsWritten / seconds : 0.0;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.eshope_console.service;
+
+import com.eshope_console.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name and category tokens.
+ * Each product gets an ordinal in insertion order; every token maps to a delta/varint
+ * compressed posting list of ordinals. Queries AND their terms together by intersecting
+ * posting lists, and alphabetic terms also match as prefixes ("smart" finds "smartphone").
+ * Matching is token based, unlike the SQL substring search.
+ */
+public class ProductSearchIndex {
+    private static final int MAX_PREFIX_EXPANSION = 256;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    // Alphabetic terms only, for prefix expansion; numeric tokens are nearly unique per product and matched exactly
+    private final NavigableSet<String> wordTerms = new TreeSet<>();
+    private final Map<String, String> categoryNames = new HashMap<>();
+    private byte[] codeBytes = new byte[1024];
+    private int[] codeOffsets = new int[129];
+    // Open-addressing table of ordinal + 1 (0 = empty) keyed by the code bytes in the arena, so a
+    // product that reaches the index twice (inserted while the build scan runs) is added once
+    private int[] codeSlots = new int[256];
+    private int size = 0;
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Product product) {
+        lock.writeLock().lock();
+        try {
+            addLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) addLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            wordTerms.clear();
+            categoryNames.clear();
+            codeBytes = new byte[1024];
+            codeOffsets = new int[129];
+            codeSlots = new int[256];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of products matching every term of the query
+     */
+    public int count(String query) {
+        lock.readLock().lock();
+        try {
+            return match(query).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Codes of products matching every term of the query, in index order, for one page of results
+     */
+    public List<String> search(String query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] ordinals = match(query);
+            List<String> codes = new ArrayList<>();
+            for (int i = Math.max(0, offset); i < ordinals.length && codes.size() < limit; i++) {
+                codes.add(codeAt(ordinals[i]));
+            }
+            return codes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(Product product) {
+        String code = product.getProductCode() != null ? product.getProductCode() : product.getProductId();
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        if ((size + 1) * 4 > codeSlots.length * 3) growCodeSlots();
+        int slot = findSlot(bytes, hash(bytes, 0, bytes.length));
+        if (codeSlots[slot] != 0) return;
+        if (product.getCategoryName() != null && product.getCategoryId() != null) {
+            categoryNames.put(product.getCategoryId(), product.getCategoryName());
+        }
+        int ordinal = appendCode(bytes);
+        codeSlots[slot] = ordinal + 1;
+
+        String categoryName = product.getCategoryName() != null
+                ? product.getCategoryName()
+                : categoryNames.get(product.getCategoryId());
+        for (String token : tokenize(product.getProductName())) addPosting(token, ordinal);
+        for (String token : tokenize(categoryName)) addPosting(token, ordinal);
+    }
+
+    private void addPosting(String token, int ordinal) {
+        PostingList list = postings.get(token);
+        if (list == null) {
+            list = new PostingList();
+            postings.put(token, list);
+            if (!isNumeric(token)) wordTerms.add(token);
+        }
+        list.add(ordinal);
+    }
+
+    private int appendCode(byte[] bytes) {
+        int start = codeOffsets[size];
+        if (start + bytes.length > codeBytes.length) {
+            codeBytes = Arrays.copyOf(codeBytes, Math.max(codeBytes.length * 2, start + bytes.length));
+        }
+        if (size + 2 > codeOffsets.length) {
+            codeOffsets = Arrays.copyOf(codeOffsets, codeOffsets.length * 2);
+        }
+        System.arraycopy(bytes, 0, codeBytes, start, bytes.length);
+        codeOffsets[size + 1] = start + bytes.length;
+        return size++;
+    }
+
+    // Slot holding the code's ordinal, or the empty slot where it belongs
+    private int findSlot(byte[] code, int hash) {
+        int mask = codeSlots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = codeSlots[slot];
+            if (entry == 0) return slot;
+            int start = codeOffsets[entry - 1];
+            if (Arrays.equals(codeBytes, start, codeOffsets[entry], code, 0, code.length)) return slot;
+        }
+    }
+
+    private void growCodeSlots() {
+        int[] slots = new int[codeSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int start = codeOffsets[ordinal];
+            int slot = hash(codeBytes, start, codeOffsets[ordinal + 1]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = ordinal + 1;
+        }
+        codeSlots = slots;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) h = 31 * h + bytes[i];
+        return h ^ (h >>> 16);
+    }
+
+    private String codeAt(int ordinal) {
+        int start = codeOffsets[ordinal];
+        return new String(codeBytes, start, codeOffsets[ordinal + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    private int[] match(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return new int[0];
+
+        List<int[]> termMatches = new ArrayList<>();
+        for (String term : terms) {
+            int[] ordinals = matchTerm(term);
+            if (ordinals.length == 0) return ordinals;
+            termMatches.add(ordinals);
+        }
+        termMatches.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = termMatches.get(0);
+        for (int i = 1; i < termMatches.size() && result.length > 0; i++) {
+            result = intersect(result, termMatches.get(i));
+        }
+        return result;
+    }
+
+    private int[] matchTerm(String term) {
+        if (isNumeric(term)) {
+            PostingList exact = postings.get(term);
+            return exact == null ? new int[0] : exact.toArray();
+        }
+
+        List<int[]> lists = new ArrayList<>();
+        int total = 0;
+        for (String candidate : wordTerms.subSet(term, true, term + Character.MAX_VALUE, false)) {
+            if (lists.size() == MAX_PREFIX_EXPANSION) break;
+            int[] ordinals = postings.get(candidate).toArray();
+            lists.add(ordinals);
+            total += ordinals.length;
+        }
+        if (lists.size() == 1) return lists.get(0);
+
+        int[] union = new int[total];
+        int position = 0;
+        for (int[] ordinals : lists) {
+            System.arraycopy(ordinals, 0, union, position, ordinals.length);
+            position += ordinals.length;
+        }
+        Arrays.sort(union);
+        int distinct = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (i == 0 || union[i] != union[i - 1]) union[distinct++] = union[i];
+        }
+        return Arrays.copyOf(union, distinct);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isNumeric(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ascending ordinals stored as varint-encoded gaps.
+     */
+    private static final class PostingList {
+        private byte[] data = new byte[4];
+        private int length = 0;
+        private int count = 0;
+        private int last = -1;
+
+        void add(int ordinal) {
+            if (ordinal <= last) return; // a token repeated within one product
+            if (length + 5 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            int gap = ordinal - last;
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+            last = ordinal;
+            count++;
+        }
+
+        int[] toArray() {
+            int[] ordinals = new int[count];
+            int position = 0;
+            int value = -1;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                value += gap;
+                ordinals[i] = value;
+            }
+            return ordinals;
+        }
+    }
+}
@@ -1,16 +1,52 @@
 package com.eshope_console.service;
 
+import com.eshope_console.dao.ProductBulkWriter;
+import com.eshope_console.dao.ProductCopyLoader;
 import com.eshope_console.dao.ProductDAO;
+import com.eshope_console.dao.ProductSnapshot;
+import com.eshope_console.model.CountMode;
+import com.eshope_console.model.FacetCount;
+import com.eshope_console.model.FacetedPage;
+import com.eshope_console.model.KeysetPage;
 import com.eshope_console.model.Product;
-
+import com.eshope_console.model.ProductFacets;
+import com.eshope_console.model.ProductFilter;
+import com.eshope_console.model.ProductSummary;
+import com.eshope_console.model.SearchMode;
+import com.eshope_console.util.PageToken;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ProductService {
+    private static final String[] SAMPLE_CATEGORIES = {"CAT001", "CAT002", "CAT003"};
+    private static final String[] SAMPLE_PRODUCT_TYPES = {"Smartphone", "Laptop", "Tablet", "Headphones", "Camera", "Speaker", "Watch", "Keyboard", "Mouse", "Monitor"};
+
+    private static final int CODE_LOOKUP_CHUNK = 10_000;
+    // Beyond DECIMAL(10,2); keeps price-range bounds within what the price index can encode
+    private static final double MAX_INDEXED_PRICE = 1e10;
+    private static final double[] PRICE_BUCKET_BOUNDS = {25, 50, 100, 250, 500, 1000};
+
     private final ProductDAO productDAO;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final ProductCache productCache = new ProductCache(
+            Integer.getInteger("eshop.cache.maxSize", 10_000), Long.getLong("eshop.cache.ttlSeconds", 0L));
+    private final ProductCountService countService;
+    private volatile boolean searchIndexEnabled = false;
+    private volatile ProductCatalog catalog;
 
     public ProductService(ProductDAO productDAO) {
         this.productDAO = productDAO;
+        this.countService = new ProductCountService(productDAO);
     }
 
     public List<Product> getAllProducts() throws Exception {
@@ -25,11 +61,74 @@ public class ProductService {
     }
 
     public Product getProductByCode(String code) throws Exception {
-        return productDAO.findByCode(code);
+        Product cached = productCache.get(code);
+        if (cached != null) return cached;
+
+        long generation = productCache.currentGeneration();
+        Product product = productDAO.findByCode(code);
+        productCache.putIfUnchanged(code, product, generation);
+        return product;
+    }
+
+    /**
+     * Look up several products at once: cached ones from memory, the rest in a single query
+     */
+    public Map<String, Product> getProductsByCodes(Collection<String> codes) throws Exception {
+        Map<String, Product> products = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String code : codes) {
+            Product cached = productCache.get(code);
+            if (cached != null) products.put(code, cached);
+            else missing.add(code);
+        }
+        if (missing.isEmpty()) return products;
+
+        long generation = productCache.currentGeneration();
+        Map<String, Product> loaded = productDAO.findByCodes(missing);
+        for (Map.Entry<String, Product> entry : loaded.entrySet()) {
+            productCache.putIfUnchanged(entry.getKey(), entry.getValue(), generation);
+        }
+        products.putAll(loaded);
+        return products;
     }
 
     public boolean updateProductStock(String productCode, int newStock) throws Exception {
-        return productDAO.updateStock(productCode, newStock);
+        try {
+            boolean updated = productDAO.updateStock(productCode, newStock);
+            ProductCatalog current = catalog;
+            if (updated && current != null) {
+                synchronized (current) {
+                    current.setStock(productCode, newStock);
+                }
+            }
+            return updated;
+        } finally {
+            productCache.invalidate(productCode);
+        }
+    }
+
+    /**
+     * Drop cached copies of products whose rows were changed outside this service
+     */
+    public void invalidateCachedProducts(Collection<String> productCodes) {
+        productCache.invalidateAll(productCodes);
+    }
+
+    /**
+     * Apply stock already subtracted in the database (by order placement) to the in-memory catalog
+     */
+    public void onStockDecremented(Map<String, Integer> quantitiesByCode) {
+        ProductCatalog current = catalog;
+        if (current == null) return;
+        synchronized (current) {
+            for (Map.Entry<String, Integer> entry : quantitiesByCode.entrySet()) {
+                current.decrementStock(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public ProductCache.CacheStats getCacheStats() {
+        return productCache.getStats();
     }
 
     /**
@@ -39,7 +138,17 @@ public class ProductService {
         if (product.getCreatedAt() == null) {
             product.setCreatedAt(LocalDateTime.now());
         }
-        return productDAO.insertProduct(product);
+        Product inserted = productDAO.insertProduct(product);
+        countService.onInserted(1);
+        productCache.invalidate(inserted.getProductCode());
+        if (searchIndexEnabled) searchIndex.add(inserted);
+        ProductCatalog current = catalog;
+        if (current != null) {
+            synchronized (current) {
+                current.put(inserted);
+            }
+        }
+        return inserted;
     }
 
     /**
@@ -54,6 +163,7 @@ public class ProductService {
         long startTime = System.currentTimeMillis();
 
         int inserted = productDAO.bulkInsertProducts(products);
+        afterInsert(products, inserted);
 
         long endTime = System.currentTimeMillis();
         double duration = (endTime - startTime) / 1000.0;
@@ -63,6 +173,49 @@ public class ProductService {
         return inserted;
     }
 
+    /**
+     * Bulk insert products through COPY, without progress output
+     */
+    public int copyInsertProducts(List<Product> products, ProductCopyLoader.Format format) throws Exception {
+        if (products == null || products.isEmpty()) {
+            return 0;
+        }
+        int inserted = productDAO.copyInsertProducts(products, format);
+        afterInsert(products, inserted);
+        return inserted;
+    }
+
+    /**
+     * Open a COPY writer pinned to a single connection, for long-running loads
+     */
+    public ProductBulkWriter openBulkWriter(ProductCopyLoader.Format format) throws Exception {
+        return productDAO.openBulkWriter(format);
+    }
+
+    /**
+     * Write one chunk through a writer from openBulkWriter
+     */
+    public int copyInsertProducts(ProductBulkWriter writer, List<Product> products) throws Exception {
+        int inserted = writer.write(products);
+        afterInsert(products, inserted);
+        return inserted;
+    }
+
+    private void afterInsert(List<Product> products, int inserted) {
+        countService.onInserted(inserted);
+        List<String> codes = new ArrayList<>(products.size());
+        for (Product product : products) codes.add(product.getProductCode());
+        productCache.invalidateAll(codes);
+        if (searchIndexEnabled) searchIndex.addAll(products);
+        ProductCatalog current = catalog;
+        if (current != null && inserted > 0) {
+            // Writers may call this concurrently; the catalog takes one writer at a time
+            synchronized (current) {
+                for (Product product : products) current.put(product);
+            }
+        }
+    }
+
     /**
      * Get products with pagination
      */
@@ -75,10 +228,125 @@ public class ProductService {
     }
 
     /**
-     * Get total product count
+     * Get total product count (exact)
      */
     public long getTotalProductCount() throws Exception {
-        return productDAO.getTotalProductCount();
+        return countService.count(CountMode.EXACT);
+    }
+
+    /**
+     * Get total product count, exact or estimated; neither scans the table after the first exact call
+     */
+    public long getTotalProductCount(CountMode mode) throws Exception {
+        return countService.count(mode);
+    }
+
+    /**
+     * Visit every product in id order with constant memory, fetching fetchSize rows per round trip
+     */
+    public long scanProducts(int fetchSize, Consumer<? super Product> visitor) throws Exception {
+        if (fetchSize < 1) fetchSize = 1000;
+        return productDAO.scanProducts(fetchSize, visitor);
+    }
+
+    /**
+     * Like scanProducts, but as compact summaries for callers that need no description or creation time
+     */
+    public long scanProductSummaries(int fetchSize, Consumer<? super ProductSummary> visitor) throws Exception {
+        if (fetchSize < 1) fetchSize = 1000;
+        return productDAO.scanProductSummaries(fetchSize, visitor);
+    }
+
+    /**
+     * Stream the products table into a new columnar catalog and make it the current one
+     */
+    public ProductCatalog loadCatalog(int fetchSize) throws Exception {
+        long expected = countService.count(CountMode.APPROXIMATE);
+        ProductCatalog loaded = new ProductCatalog((int) Math.min(expected + expected / 20, Integer.MAX_VALUE - 8));
+        // Read the horizon before scanning: anything the scan might miss was changed at or after it
+        long xminHorizon = productDAO.getXminHorizon();
+        long filenode = productDAO.getProductsFilenode();
+        scanProducts(fetchSize, loaded::put);
+        loaded.setSource(xminHorizon, filenode);
+        loaded.buildPriceIndex();
+        catalog = loaded;
+        return loaded;
+    }
+
+    /**
+     * Map a catalog snapshot file and make it the current catalog, ready for reads.
+     * Call catchUpCatalog afterwards to apply changes made since the snapshot was written.
+     */
+    public ProductCatalog openCatalogSnapshot(Path path) throws Exception {
+        ProductCatalog restored = CatalogSnapshot.read(path);
+        restored.buildPriceIndex();
+        catalog = restored;
+        return restored;
+    }
+
+    /**
+     * Write the current catalog to a snapshot file
+     */
+    public void saveCatalogSnapshot(Path path) throws Exception {
+        ProductCatalog current = catalog;
+        if (current == null) throw new IllegalStateException("No product catalog is loaded");
+        CatalogSnapshot.write(current, path);
+    }
+
+    /**
+     * Bring the current catalog up to date with rows inserted or updated since it was loaded.
+     * If the table was truncated or rewritten in the meantime, the catalog is reloaded from scratch.
+     * Returns the number of rows applied. Deleted rows are not detected.
+     */
+    public long catchUpCatalog(int fetchSize) throws Exception {
+        ProductCatalog current = catalog;
+        if (current == null) throw new IllegalStateException("No product catalog is loaded");
+        long filenode = productDAO.getProductsFilenode();
+        if (current.getXminHorizon() < 0 || current.getSourceFilenode() != filenode) {
+            return loadCatalog(fetchSize).size();
+        }
+        long xminHorizon = productDAO.getXminHorizon();
+        long applied = productDAO.scanProductsModifiedSince(current.getXminHorizon(), fetchSize, product -> {
+            synchronized (current) {
+                current.put(product);
+            }
+        });
+        current.setSource(xminHorizon, filenode);
+        return applied;
+    }
+
+    public Path getCatalogSnapshotPath() {
+        return Paths.get(System.getProperty("eshop.catalogSnapshot", "data/products.catalog"));
+    }
+
+    /**
+     * The catalog from the last loadCatalog, or null if none was loaded
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Export a database snapshot for consistent parallel scans
+     */
+    public ProductSnapshot exportSnapshot() throws Exception {
+        return productDAO.exportSnapshot();
+    }
+
+    /**
+     * Boundaries splitting the product id space into roughly equal partitions
+     */
+    public List<String> getIdPartitionBoundaries(int partitions) throws Exception {
+        return productDAO.findIdPartitionBoundaries(partitions);
+    }
+
+    /**
+     * Visit products in [fromInclusive, toExclusive) as seen by the given snapshot
+     */
+    public long scanProductRange(ProductSnapshot snapshot, String fromInclusive, String toExclusive,
+                                 int fetchSize, Consumer<? super ProductSummary> visitor) throws Exception {
+        if (fetchSize < 1) fetchSize = 1000;
+        return productDAO.scanProductRange(snapshot, fromInclusive, toExclusive, fetchSize, visitor);
     }
 
     /**
@@ -96,6 +364,55 @@ public class ProductService {
         return productDAO.searchProductsWithPagination(keyword.trim(), page, pageSize);
     }
 
+    /**
+     * Build the in-memory search index from a streaming scan. It serves SearchMode.INDEXED searches;
+     * until it is ready those go to the database as CONTAINS searches.
+     * Products inserted through this service while the scan runs are indexed as well.
+     */
+    public int buildSearchIndex(int fetchSize) throws Exception {
+        searchIndexEnabled = true;
+        searchIndex.clear();
+        try {
+            scanProducts(fetchSize, searchIndex::add);
+        } catch (Exception e) {
+            searchIndexEnabled = false;
+            searchIndex.clear();
+            throw e;
+        }
+        searchIndex.markReady();
+        return searchIndex.size();
+    }
+
+    private List<Product> loadInOrder(List<String> codes) throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int from = 0; from < codes.size(); from += CODE_LOOKUP_CHUNK) {
+            int to = Math.min(from + CODE_LOOKUP_CHUNK, codes.size());
+            products.addAll(productDAO.findByCodesInOrder(codes.subList(from, to)));
+        }
+        return products;
+    }
+
+    /**
+     * Search products with the given matching mode; ranked modes return the most relevant first
+     */
+    public List<Product> searchProducts(String keyword, SearchMode mode, int page, int pageSize) throws Exception {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getProductsWithPagination(page, pageSize);
+        }
+
+        if (page < 1) page = 1;
+        if (pageSize < 1) pageSize = 50;
+        if (pageSize > 1000) pageSize = 1000;
+
+        if (mode == SearchMode.INDEXED) {
+            if (searchIndex.isReady()) {
+                return loadInOrder(searchIndex.search(keyword.trim(), (page - 1) * pageSize, pageSize));
+            }
+            mode = SearchMode.CONTAINS;
+        }
+        return productDAO.searchProductsRanked(keyword.trim(), mode, page, pageSize);
+    }
+
     /**
      * Get products by category with pagination
      */
@@ -117,9 +434,237 @@ public class ProductService {
         if (pageSize < 1) pageSize = 50;
         if (pageSize > 1000) pageSize = 1000;
 
+        ProductCatalog current = catalog;
+        PriceIndex index = current == null ? null : current.getPriceIndex();
+        if (index != null) {
+            int offset = (int) Math.min((long) (page - 1) * pageSize, Integer.MAX_VALUE);
+            long[] keys = index.range(minCents(minPrice), maxCents(maxPrice), -1, offset, pageSize);
+            return toProducts(current, keys, keys.length);
+        }
         return productDAO.findProductsByPriceRange(minPrice, maxPrice, page, pageSize);
     }
 
+    /**
+     * Keyset pagination over all products. Pass a null token for the first page.
+     */
+    public KeysetPage<Product> getProductsPage(String pageToken, int pageSize) throws Exception {
+        pageSize = clampPageSize(pageSize);
+        String afterId = pageToken == null ? null : PageToken.decode(pageToken, "all", 1)[0];
+        List<Product> products = productDAO.findProductsAfter(afterId, pageSize + 1);
+        return toIdPage(products, pageSize, "all");
+    }
+
+    /**
+     * Keyset pagination over search results. Pass a null token for the first page.
+     */
+    public KeysetPage<Product> searchProductsPage(String keyword, String pageToken, int pageSize) throws Exception {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getProductsPage(pageToken, pageSize);
+        }
+        pageSize = clampPageSize(pageSize);
+        String scope = keyword.trim().toLowerCase();
+        String afterId = pageToken == null ? null : PageToken.decodeScoped(pageToken, "search", scope, 1)[0];
+        List<Product> products = productDAO.searchProductsAfter(keyword.trim(), afterId, pageSize + 1);
+        return toIdPage(products, pageSize, "search", scope);
+    }
+
+    /**
+     * Keyset pagination within a category. Pass a null token for the first page.
+     */
+    public KeysetPage<Product> getProductsByCategoryPage(String categoryId, String pageToken, int pageSize) throws Exception {
+        pageSize = clampPageSize(pageSize);
+        String scope = String.valueOf(categoryId);
+        String afterId = pageToken == null ? null : PageToken.decodeScoped(pageToken, "category", scope, 1)[0];
+        List<Product> products = productDAO.findProductsByCategoryAfter(categoryId, afterId, pageSize + 1);
+        return toIdPage(products, pageSize, "category", scope);
+    }
+
+    /**
+     * Keyset pagination within a price range, ordered by price. Pass a null token for the first page.
+     * A walk that starts on the in-memory price index breaks price ties by catalog (load) order and
+     * stays on the index; one that starts in the database breaks ties by id and stays there. The two
+     * paths issue different token kinds, since switching orders mid-walk would skip or repeat rows.
+     * An index token is rejected once the catalog it came from has been reloaded or dropped.
+     */
+    public KeysetPage<Product> getProductsByPriceRangePage(double minPrice, double maxPrice, String pageToken, int pageSize) throws Exception {
+        if (minPrice < 0) minPrice = 0;
+        if (maxPrice < minPrice) maxPrice = minPrice;
+        pageSize = clampPageSize(pageSize);
+        String scope = BigDecimal.valueOf(minPrice).toPlainString() + ".." + BigDecimal.valueOf(maxPrice).toPlainString();
+
+        ProductCatalog current = catalog;
+        PriceIndex index = current == null ? null : current.getPriceIndex();
+        boolean fromIndex = pageToken == null ? index != null : "price-catalog".equals(PageToken.kindOf(pageToken));
+        if (fromIndex) {
+            long afterKey = -1;
+            if (pageToken != null) {
+                String[] keys = PageToken.decodeScoped(pageToken, "price-catalog", scope, 3);
+                int afterOrdinal = index == null ? -1 : current.indexOf(keys[2]);
+                if (afterOrdinal < 0 || afterOrdinal != Integer.parseInt(keys[1])) {
+                    throw new IllegalArgumentException("Page token has expired: the product catalog was reloaded");
+                }
+                afterKey = PriceIndex.key(Long.parseLong(keys[0]), afterOrdinal);
+            }
+            long[] keys = index.range(minCents(minPrice), maxCents(maxPrice), afterKey, 0, pageSize + 1);
+            if (keys.length <= pageSize) {
+                return new KeysetPage<>(toProducts(current, keys, keys.length), null);
+            }
+            List<Product> page = toProducts(current, keys, pageSize);
+            long last = keys[pageSize - 1];
+            return new KeysetPage<>(page, PageToken.encodeScoped("price-catalog", scope,
+                    Long.toString(PriceIndex.priceCentsOf(last)), Integer.toString(PriceIndex.ordinalOf(last)),
+                    page.get(pageSize - 1).getProductId()));
+        }
+
+        BigDecimal afterPrice = null;
+        String afterId = null;
+        if (pageToken != null) {
+            String[] keys = PageToken.decodeScoped(pageToken, "price", scope, 2);
+            afterPrice = new BigDecimal(keys[0]);
+            afterId = keys[1];
+        }
+        List<Product> products = productDAO.findProductsByPriceRangeAfter(minPrice, maxPrice, afterPrice, afterId, pageSize + 1);
+        if (products.size() <= pageSize) {
+            return new KeysetPage<>(products, null);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        Product last = page.get(pageSize - 1);
+        String price = BigDecimal.valueOf(last.getPrice()).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        return new KeysetPage<>(page, PageToken.encodeScoped("price", scope, price, last.getProductId()));
+    }
+
+    /**
+     * Products matching every criterion set on the filter, with facet counts per category and price
+     * bucket over all matches on the first page (null on later pages). Pass a null token for the first page.
+     * Served by a parallel pass over the in-memory catalog when one is loaded, in catalog (load)
+     * order; otherwise by a page query ordered by id and a single GROUPING SETS aggregate in the
+     * database. A walk stays on the path its first page used: the two orders differ once rows are
+     * appended to the catalog, so each path issues its own token kind, and a catalog token is
+     * rejected once the catalog it came from has been reloaded or dropped.
+     */
+    public FacetedPage<Product> filterProducts(ProductFilter filter, String pageToken, int pageSize) throws Exception {
+        pageSize = clampPageSize(pageSize);
+        ProductFilter normalized = normalizeFilter(filter);
+        String scope = filterScope(normalized);
+
+        ProductCatalog current = catalog;
+        boolean fromCatalog = pageToken == null ? current != null : "filter-catalog".equals(PageToken.kindOf(pageToken));
+        if (fromCatalog) {
+            int afterOrdinal = -1;
+            if (pageToken != null) {
+                String[] keys = PageToken.decodeScoped(pageToken, "filter-catalog", scope, 2);
+                afterOrdinal = current == null ? -1 : current.indexOf(keys[1]);
+                if (afterOrdinal < 0 || afterOrdinal != Integer.parseInt(keys[0])) {
+                    throw new IllegalArgumentException("Page token has expired: the product catalog was reloaded");
+                }
+            }
+            long[] boundsCents = new long[PRICE_BUCKET_BOUNDS.length];
+            for (int i = 0; i < boundsCents.length; i++) boundsCents[i] = minCents(PRICE_BUCKET_BOUNDS[i]);
+            CatalogFacets pass = new CatalogFacets(current, normalized.getCategoryId(),
+                    normalized.getMinPrice() == null ? null : minCents(normalized.getMinPrice()),
+                    normalized.getMaxPrice() == null ? null : maxCents(normalized.getMaxPrice()),
+                    normalized.getMinStock(), normalized.getKeyword(), boundsCents);
+            int[] ordinals;
+            ProductFacets facets = null;
+            if (pageToken == null) {
+                CatalogFacets.Result result = pass.pageWithCounts(-1, pageSize + 1);
+                ordinals = result.page;
+                facets = toFacets(current, result);
+            } else {
+                ordinals = pass.page(afterOrdinal, pageSize + 1);
+            }
+            int count = Math.min(ordinals.length, pageSize);
+            List<Product> products = new ArrayList<>(count);
+            ProductCatalog.View view = current.view();
+            for (int i = 0; i < count; i++) products.add(view.moveTo(ordinals[i]).toProduct());
+            if (ordinals.length <= pageSize) {
+                return new FacetedPage<>(products, null, facets);
+            }
+            return new FacetedPage<>(products, PageToken.encodeScoped("filter-catalog", scope,
+                    Integer.toString(ordinals[pageSize - 1]), products.get(pageSize - 1).getProductId()), facets);
+        }
+
+        String afterId = pageToken == null ? null : PageToken.decodeScoped(pageToken, "filter", scope, 1)[0];
+        List<Product> products = productDAO.findProductsFilteredAfter(normalized, afterId, pageSize + 1);
+        ProductFacets facets = afterId == null ? productDAO.countFacets(normalized, PRICE_BUCKET_BOUNDS) : null;
+        if (products.size() <= pageSize) {
+            return new FacetedPage<>(products, null, facets);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        return new FacetedPage<>(page, PageToken.encodeScoped("filter", scope, page.get(pageSize - 1).getProductId()), facets);
+    }
+
+    // Every criterion of a normalized filter, so a page token only continues the filter it came from
+    private static String filterScope(ProductFilter filter) {
+        return filter.getCategoryId() + "|" + filter.getMinPrice() + "|" + filter.getMaxPrice() + "|"
+                + filter.getMinStock() + "|" + (filter.getKeyword() == null ? null : filter.getKeyword().toLowerCase());
+    }
+
+    private static ProductFilter normalizeFilter(ProductFilter filter) {
+        ProductFilter normalized = new ProductFilter();
+        if (filter == null) return normalized;
+        String categoryId = filter.getCategoryId() == null ? null : filter.getCategoryId().trim();
+        normalized.setCategoryId(categoryId == null || categoryId.isEmpty() ? null : categoryId);
+        normalized.setMinPrice(filter.getMinPrice());
+        normalized.setMaxPrice(filter.getMaxPrice());
+        normalized.setMinStock(filter.getMinStock());
+        String keyword = filter.getKeyword() == null ? null : filter.getKeyword().trim();
+        normalized.setKeyword(keyword == null || keyword.isEmpty() ? null : keyword);
+        return normalized;
+    }
+
+    private static ProductFacets toFacets(ProductCatalog catalog, CatalogFacets.Result result) {
+        List<FacetCount> categories = new ArrayList<>();
+        for (int category = 0; category < result.categoryCounts.length; category++) {
+            if (result.categoryCounts[category] == 0) continue;
+            categories.add(new FacetCount(catalog.categoryIds[category], catalog.categoryNames[category],
+                    result.categoryCounts[category]));
+        }
+        categories.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return new ProductFacets(result.total, categories,
+                ProductFacets.priceBuckets(PRICE_BUCKET_BOUNDS, result.bucketCounts));
+    }
+
+    private static List<Product> toProducts(ProductCatalog catalog, long[] priceKeys, int count) {
+        List<Product> products = new ArrayList<>(count);
+        ProductCatalog.View view = catalog.view();
+        for (int i = 0; i < count; i++) {
+            products.add(view.moveTo(PriceIndex.ordinalOf(priceKeys[i])).toProduct());
+        }
+        return products;
+    }
+
+    // BETWEEN bounds in whole cents: round the lower bound up and the upper bound down
+    private static long minCents(double price) {
+        return BigDecimal.valueOf(Math.max(-MAX_INDEXED_PRICE, Math.min(price, MAX_INDEXED_PRICE))).movePointRight(2).setScale(0, RoundingMode.CEILING).longValue();
+    }
+
+    private static long maxCents(double price) {
+        return BigDecimal.valueOf(Math.max(-MAX_INDEXED_PRICE, Math.min(price, MAX_INDEXED_PRICE))).movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue();
+    }
+
+    // One extra row is fetched to learn whether another page exists
+    private KeysetPage<Product> toIdPage(List<Product> products, int pageSize, String kind) {
+        if (products.size() <= pageSize) {
+            return new KeysetPage<>(products, null);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        return new KeysetPage<>(page, PageToken.encode(kind, page.get(pageSize - 1).getProductId()));
+    }
+
+    private KeysetPage<Product> toIdPage(List<Product> products, int pageSize, String kind, String scope) {
+        if (products.size() <= pageSize) {
+            return new KeysetPage<>(products, null);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        return new KeysetPage<>(page, PageToken.encodeScoped(kind, scope, page.get(pageSize - 1).getProductId()));
+    }
+
+    private int clampPageSize(int pageSize) {
+        if (pageSize < 1) return 50;
+        return Math.min(pageSize, 1000);
+    }
+
     /**
      * Bulk update stock quantities
      */
@@ -131,7 +676,18 @@ public class ProductService {
         System.out.println("Starting bulk stock update for " + productCodes.size() + " products...");
         long startTime = System.currentTimeMillis();
 
-        int updated = productDAO.bulkUpdateStock(productCodes, newStocks);
+        int updated;
+        try {
+            updated = productDAO.bulkUpdateStock(productCodes, newStocks);
+            ProductCatalog current = catalog;
+            if (current != null) {
+                synchronized (current) {
+                    for (int i = 0; i < productCodes.size(); i++) current.setStock(productCodes.get(i), newStocks.get(i));
+                }
+            }
+        } finally {
+            productCache.invalidateAll(productCodes);
+        }
 
         long endTime = System.currentTimeMillis();
         double duration = (endTime - startTime) / 1000.0;
@@ -144,35 +700,49 @@ public class ProductService {
      * Generate sample products for testing bulk operations
      */
     public List<Product> generateSampleProducts(int count) {
-        List<Product> products = new java.util.ArrayList<>();
-        String[] categories = {"CAT001", "CAT002", "CAT003"};
-        String[] productTypes = {"Smartphone", "Laptop", "Tablet", "Headphones", "Camera", "Speaker", "Watch", "Keyboard", "Mouse", "Monitor"};
-
+        List<Product> products = new ArrayList<>();
         for (int i = 1; i <= count; i++) {
-            Product product = new Product();
-            product.setProductId(String.format("PRD%07d", i));
-            product.setProductCode(String.format("PRD%07d", i));
-            product.setProductName(productTypes[i % productTypes.length] + " " + i);
-            product.setDescription("Sample product description for " + productTypes[i % productTypes.length] + " " + i);
-            product.setCategoryId(categories[i % categories.length]);
-            product.setPrice(10.0 + (i % 1000) * 0.1);
-            product.setStockQuantity(10 + (i % 100));
-            product.setCreatedAt(LocalDateTime.now());
-            products.add(product);
+            products.add(generateSampleProduct(i));
         }
-
         return products;
     }
 
+    /**
+     * Generate the i-th sample product
+     */
+    public Product generateSampleProduct(int i) {
+        Product product = new Product();
+        product.setProductId(String.format("PRD%07d", i));
+        product.setProductCode(String.format("PRD%07d", i));
+        product.setProductName(SAMPLE_PRODUCT_TYPES[i % SAMPLE_PRODUCT_TYPES.length] + " " + i);
+        product.setDescription("Sample product description for " + SAMPLE_PRODUCT_TYPES[i % SAMPLE_PRODUCT_TYPES.length] + " " + i);
+        product.setCategoryId(SAMPLE_CATEGORIES[i % SAMPLE_CATEGORIES.length]);
+        product.setPrice(10.0 + (i % 1000) * 0.1);
+        product.setStockQuantity(10 + (i % 100));
+        product.setCreatedAt(LocalDateTime.now());
+        return product;
+    }
+
     /**
      * Get pagination info
      */
     public PaginationInfo getPaginationInfo(int currentPage, int pageSize, long totalCount) {
+        return getPaginationInfo(currentPage, pageSize, totalCount, true);
+    }
+
+    /**
+     * Get pagination info for all products, with the total taken from the count service
+     */
+    public PaginationInfo getPaginationInfo(int currentPage, int pageSize, CountMode mode) throws Exception {
+        return getPaginationInfo(currentPage, pageSize, countService.count(mode), mode == CountMode.EXACT);
+    }
+
+    private PaginationInfo getPaginationInfo(int currentPage, int pageSize, long totalCount, boolean exactCount) {
         int totalPages = (int) Math.ceil((double) totalCount / pageSize);
         boolean hasNext = currentPage < totalPages;
         boolean hasPrevious = currentPage > 1;
 
-        return new PaginationInfo(currentPage, pageSize, totalPages, totalCount, hasNext, hasPrevious);
+        return new PaginationInfo(currentPage, pageSize, totalPages, totalCount, hasNext, hasPrevious, exactCount);
     }
 
     /**
@@ -185,14 +755,21 @@ public class ProductService {
         private final long totalCount;
         private final boolean hasNext;
         private final boolean hasPrevious;
+        private final boolean exactCount;
 
         public PaginationInfo(int currentPage, int pageSize, int totalPages, long totalCount, boolean hasNext, boolean hasPrevious) {
+            this(currentPage, pageSize, totalPages, totalCount, hasNext, hasPrevious, true);
+        }
+
+        public PaginationInfo(int currentPage, int pageSize, int totalPages, long totalCount, boolean hasNext, boolean hasPrevious,
+                              boolean exactCount) {
             this.currentPage = currentPage;
             this.pageSize = pageSize;
             this.totalPages = totalPages;
             this.totalCount = totalCount;
             this.hasNext = hasNext;
             this.hasPrevious = hasPrevious;
+            this.exactCount = exactCount;
         }
 
         public int getCurrentPage() {
@@ -218,10 +795,21 @@ public class ProductService {
         public boolean hasPrevious() {
             return hasPrevious;
         }
+
+        /**
+         * False when totalCount (and so totalPages) is a planner estimate
+         */
+        public boolean isExactCount() {
+            return exactCount;
+        }
     }
 
     // Add this method to allow truncation from ReadProductService
     public void truncateProductsTable() throws Exception {
         productDAO.truncateProductsTable();
+        countService.onTruncated();
+        catalog = null;
+        productCache.clear();
+        searchIndex.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.eshope_console.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe LatencyHistogram for recording from many threads at once.
+ * Recording is a few atomic increments and never allocates; read it through snapshot().
+ * A reset that races with recording may keep or drop the values recorded meanwhile.
+ */
+public class AtomicLatencyHistogram {
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(LatencyHistogram.indexOf(value));
+        sum.add(value);
+        // Reads first so the common case (not a new extreme) does no CAS
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) currentMax = max.get();
+        long currentMin = min.get();
+        while (value < currentMin && !min.compareAndSet(currentMin, value)) currentMin = min.get();
+    }
+
+    public LatencyHistogram snapshot() {
+        long[] copy = new long[LatencyHistogram.BUCKETS];
+        for (int i = 0; i < copy.length; i++) copy[i] = counts.get(i);
+        return LatencyHistogram.fromCounts(copy, min.get(), max.get(), sum.sum());
+    }
+
+    public void reset() {
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) counts.set(i, 0);
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+}
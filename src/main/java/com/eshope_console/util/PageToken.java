@@ -0,0 +1,79 @@
+package com.eshope_console.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination positions as opaque URL-safe tokens.
+ * A token carries the kind of query it belongs to, so it cannot be replayed against a different ordering.
+ */
+public class PageToken {
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "\u001F";
+
+    public static String encode(String kind, String... keys) {
+        StringBuilder raw = new StringBuilder(VERSION).append(SEPARATOR).append(kind);
+        for (String key : keys) {
+            raw.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encode a token that is also bound to the query's arguments (a category, keyword or range),
+     * so decodeScoped rejects it when it is presented with different ones.
+     */
+    public static String encodeScoped(String kind, String scope, String... keys) {
+        String[] scopedKeys = new String[keys.length + 1];
+        scopedKeys[0] = scope;
+        System.arraycopy(keys, 0, scopedKeys, 1, keys.length);
+        return encode(kind, scopedKeys);
+    }
+
+    /**
+     * Decode a token from encodeScoped, checking it was issued for the given kind of query and scope.
+     */
+    public static String[] decodeScoped(String token, String kind, String scope, int keyCount) {
+        String[] scopedKeys = decode(token, kind, keyCount + 1);
+        if (!scopedKeys[0].equals(scope)) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        String[] keys = new String[keyCount];
+        System.arraycopy(scopedKeys, 1, keys, 0, keyCount);
+        return keys;
+    }
+
+    /**
+     * The kind of query a token was issued for, for queries served by more than one path
+     */
+    public static String kindOf(String token) {
+        String[] parts = split(token);
+        if (parts.length < 2 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        return parts[1];
+    }
+
+    /**
+     * Decode a token into its sort keys, checking it was issued for the given kind of query.
+     */
+    public static String[] decode(String token, String kind, int keyCount) {
+        String[] parts = split(token);
+        if (parts.length != keyCount + 2 || !VERSION.equals(parts[0]) || !kind.equals(parts[1])) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        String[] keys = new String[keyCount];
+        System.arraycopy(parts, 2, keys, 0, keyCount);
+        return keys;
+    }
+
+    private static String[] split(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+        return raw.split(SEPARATOR, -1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.eshope_console.view;
 
+import com.eshope_console.config.QueryStats;
 import com.eshope_console.model.*;
 import com.eshope_console.util.ConsoleColors;
 
@@ -21,11 +22,18 @@ public class ConsoleView {
                 "Code", "Name", "Category", "Price", "Stock");
         System.out.println(ConsoleColors.BLUE + "-".repeat(75) + ConsoleColors.RESET);
         for (Product p : products) {
-            System.out.printf("%-6s %-30s %-15s $%-9.2f %-8d\n",
-                    p.getProductCode(), p.getProductName(), p.getCategoryName(), p.getPrice(), p.getStockQuantity());
+            System.out.println(formatProductRow(p));
         }
     }
 
+    /**
+     * One line of the product table, without the line break
+     */
+    public String formatProductRow(Product p) {
+        return String.format("%-6s %-30s %-15s $%-9.2f %-8d",
+                p.getProductCode(), p.getProductName(), p.getCategoryName(), p.getPrice(), p.getStockQuantity());
+    }
+
     public void showCart(Map<String, Integer> cartItems, List<Product> products, double total) {
         System.out.println(ConsoleColors.CYAN_BOLD + "\nYOUR SHOPPING CART" + ConsoleColors.RESET);
         if (cartItems.isEmpty()) {
@@ -61,6 +69,34 @@ public class ConsoleView {
         }
     }
 
+    public void showOrderDetails(Order order) {
+        System.out.println(ConsoleColors.CYAN_BOLD + "\nORDER " + order.getOrderCode() + ConsoleColors.RESET + "  " + order.getOrderDate());
+        System.out.printf(ConsoleColors.BLUE_BOLD + "%-10s %-30s %-8s %-10s %-10s\n" + ConsoleColors.RESET,
+                "Code", "Name", "Qty", "Unit Price", "Total");
+        System.out.println(ConsoleColors.BLUE + "-".repeat(74) + ConsoleColors.RESET);
+        for (OrderItem item : order.getOrderItems()) {
+            System.out.printf("%-10s %-30s %-8d $%-9.2f $%-9.2f\n",
+                    item.getProductCode(), item.getProductName(), item.getQuantity(), item.getPricePerItem(), item.getTotalPrice());
+        }
+        System.out.println(ConsoleColors.GREEN_BOLD + "TOTAL: $" + String.format("%.2f", order.getTotalPrice()) + ConsoleColors.RESET);
+    }
+
+    public void showQueryMetrics(List<QueryStats> stats) {
+        if (stats.isEmpty()) {
+            System.out.println(ConsoleColors.YELLOW + "\nNo statements recorded yet." + ConsoleColors.RESET);
+            return;
+        }
+        System.out.println(ConsoleColors.CYAN_BOLD + "\nQUERY METRICS (most total time first)" + ConsoleColors.RESET);
+        System.out.printf(ConsoleColors.BLUE_BOLD + "%-40s %10s %7s %12s %11s %10s %10s %10s\n" + ConsoleColors.RESET,
+                "Statement", "Execs", "Errors", "Rows", "Total ms", "Mean µs", "p99 µs", "Max µs");
+        System.out.println(ConsoleColors.BLUE + "-".repeat(117) + ConsoleColors.RESET);
+        for (QueryStats stat : stats) {
+            System.out.printf("%-40s %10d %7d %12d %11.1f %10.1f %10.1f %10.1f\n",
+                    stat.getName(), stat.getExecutions(), stat.getErrors(), stat.getRows(), stat.getTotalMillis(),
+                    stat.getMeanMicros(), stat.getP99Micros(), stat.getMaxMicros());
+        }
+    }
+
     public void showMessage(String message) {
         System.out.println(ConsoleColors.CYAN + message + ConsoleColors.RESET);
     }
@@ -31,9 +31,22 @@ public class MenuView {
         System.out.println("3. 🛒 Cart Management");
         System.out.println("4. 📋 Order History");
         System.out.println("5. 📊 Product (10M Products)");
-        System.out.println("6. 🚪 Logout");
+        System.out.println("6. 📈 Query Metrics");
+        System.out.println("7. 🚪 Logout");
         System.out.println("========================================");
-        return InputValidator.getValidInt(scanner, "Choose an option: ", 1, 6);
+        return InputValidator.getValidInt(scanner, "Choose an option: ", 1, 7);
+    }
+
+    public int showMetricsMenu() {
+        System.out.println("\n========================================");
+        System.out.println("📈 QUERY METRICS");
+        System.out.println("========================================");
+        System.out.println("1. 🔄 Refresh");
+        System.out.println("2. 🧹 Reset Counters");
+        System.out.println("3. 💾 Save Snapshot to File");
+        System.out.println("4. ⬅️  Back to Main Menu");
+        System.out.println("========================================");
+        return InputValidator.getValidInt(scanner, "Choose an option: ", 1, 4);
     }
 
     public int showCartMenu() {
@@ -83,6 +96,16 @@ public class MenuView {
         return response.equals("y") || response.equals("yes");
     }
 
+    /**
+     * "n" for the next page, an order code to open it, or empty to go back
+     */
+    public String getOrderHistoryAction(boolean hasNextPage) {
+        System.out.print(hasNextPage
+                ? "\nEnter order code for details, 'n' for next page, or Enter to go back: "
+                : "\nEnter order code for details, or Enter to go back: ");
+        return scanner.nextLine().trim();
+    }
+
     public void pressEnterToContinue() {
         System.out.print("\nPress Enter to continue...");
         scanner.nextLine();
@@ -5,6 +5,9 @@ DROP TABLE IF EXISTS cart_items CASCADE;
 DROP TABLE IF EXISTS products CASCADE;
 DROP TABLE IF EXISTS categories CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
+DROP SEQUENCE IF EXISTS user_id_seq;
+DROP SEQUENCE IF EXISTS order_id_seq;
+DROP SEQUENCE IF EXISTS order_item_id_seq;
 
 CREATE SCHEMA IF NOT EXISTS eshop;
 SET SEARCH_PATH = eshop;
@@ -67,6 +70,11 @@ CREATE TABLE order_items (
     FOREIGN KEY (product_id) REFERENCES products(id)
 );
 
+-- Id sequences; each nextval reserves a block of 50 ids for the application (see IdAllocator)
+CREATE SEQUENCE user_id_seq INCREMENT BY 50 START WITH 50;
+CREATE SEQUENCE order_id_seq INCREMENT BY 50 START WITH 50;
+CREATE SEQUENCE order_item_id_seq INCREMENT BY 50 START WITH 50;
+
 -- Insert sample data
 INSERT INTO categories (id, name, description) VALUES
 ('CAT001', 'Electronics', 'Electronic devices and gadgets'),
@@ -6,10 +6,16 @@ DROP TABLE IF EXISTS cart_items CASCADE;
 DROP TABLE IF EXISTS products CASCADE;
 DROP TABLE IF EXISTS categories CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
+DROP SEQUENCE IF EXISTS user_id_seq;
+DROP SEQUENCE IF EXISTS order_id_seq;
+DROP SEQUENCE IF EXISTS order_item_id_seq;
 
 CREATE SCHEMA IF NOT EXISTS eshop;
 SET SEARCH_PATH = eshop;
 
+-- Trigram operators and GIN operator classes for substring and similarity search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Create tables with optimized structure for large datasets
 CREATE TABLE users (
     id VARCHAR(10) PRIMARY KEY,
@@ -65,6 +71,11 @@ CREATE TABLE order_items (
     FOREIGN KEY (product_id) REFERENCES products(id)
 );
 
+-- Id sequences; each nextval reserves a block of 50 ids for the application (see IdAllocator)
+CREATE SEQUENCE user_id_seq INCREMENT BY 50 START WITH 50;
+CREATE SEQUENCE order_id_seq INCREMENT BY 50 START WITH 50;
+CREATE SEQUENCE order_item_id_seq INCREMENT BY 50 START WITH 50;
+
 -- PERFORMANCE INDEXES FOR 10 MILLION PRODUCTS
 -- These indexes will dramatically improve query performance
 
@@ -89,18 +100,33 @@ CREATE INDEX idx_products_category_price ON products(category_id, price);
 -- Composite index for category + stock queries
 CREATE INDEX idx_products_category_stock ON products(category_id, stock_quantity);
 
+-- Composite indexes for keyset pagination: (price, id) and (category_id, id) orderings
+CREATE INDEX idx_products_price_id ON products(price, id);
+CREATE INDEX idx_products_category_id_id ON products(category_id, id);
+
 -- Index for case-insensitive name searches
 CREATE INDEX idx_products_name_lower ON products(LOWER(name));
 
 -- Index for partial name searches (LIKE queries)
 CREATE INDEX idx_products_name_pattern ON products(name text_pattern_ops);
 
+-- Trigram indexes: serve LIKE '%keyword%' (leading wildcard) and similarity search
+CREATE INDEX idx_products_name_trgm ON products USING gin (LOWER(name) gin_trgm_ops);
+CREATE INDEX idx_categories_name_trgm ON categories USING gin (LOWER(name) gin_trgm_ops);
+
+-- Full-text indexes for whole-word, ranked search
+CREATE INDEX idx_products_name_fts ON products USING gin (to_tsvector('simple', name));
+CREATE INDEX idx_categories_name_fts ON categories USING gin (to_tsvector('simple', name));
+
 -- Index for user lookups
 CREATE INDEX idx_users_username ON users(username);
 
 -- Index for order lookups by user
 CREATE INDEX idx_orders_user ON orders(user_id);
 
+-- Index for paging a user's order history newest first (keyset on created_at, id)
+CREATE INDEX idx_orders_user_created_id ON orders(user_id, created_at DESC, id DESC);
+
 -- Index for order items by order
 CREATE INDEX idx_order_items_order ON order_items(order_id);
 